@@ -0,0 +1,26 @@
+package com.lipisak.vaadin.slidetab;
+
+import com.vaadin.testbench.unit.UIUnit4Test;
+
+/**
+ * A mocked Vaadin service, session and UI for benchmarks, set up through the same public API as the unit tests but
+ * outside of JUnit
+ */
+final class BenchmarkVaadin extends UIUnit4Test {
+
+    private BenchmarkVaadin() {
+    }
+
+    /**
+     * Sets up the environment, with the UI as the current one
+     */
+    static BenchmarkVaadin setUp() {
+        BenchmarkVaadin vaadin = new BenchmarkVaadin();
+        vaadin.initVaadinEnvironment();
+        return vaadin;
+    }
+
+    void tearDown() {
+        cleanVaadinEnvironment();
+    }
+}
@@ -0,0 +1,127 @@
+package com.lipisak.vaadin.slidetab;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Div;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of scheduling through {@link DefaultScheduleStrategy}, where every schedule cancels the previous task of
+ * the tab. The long delay keeps cancelled tasks in the shared timer queue, which is what purging is for, so compare
+ * with a run that never purges, e.g. {@code -Djmh.args="ScheduleStrategyBenchmark -prof gc -jvmArgsAppend
+ * -Dslidetab.purgeThreshold=0"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScheduleStrategyBenchmark {
+
+    private static final int TABS = 64;
+
+    @Param({"0", "16"})
+    private int maxPerUI;
+
+    private final SlideTab[] tabs = new SlideTab[TABS];
+    private int next;
+    private BenchmarkVaadin vaadin;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        vaadin = BenchmarkVaadin.setUp();
+        DefaultScheduleStrategy.setQuota(0, maxPerUI, DefaultScheduleStrategy.OverflowPolicy.REPLACE_OLDEST);
+        for (int i = 0; i < TABS; i++) {
+            tabs[i] = new SlideTabBuilder(new Div()).build();
+            UI.getCurrent().add(tabs[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // The tasks still pending are not cancelled, each trial runs in its own fork
+        DefaultScheduleStrategy.setQuota(0, 0, DefaultScheduleStrategy.OverflowPolicy.REJECT);
+        vaadin.tearDown();
+    }
+
+    /**
+     * A single tab rescheduled over and over, e.g. a collapse pushed back on every user action
+     */
+    @Benchmark
+    public void reschedule() {
+        tabs[0].scheduleCollapse(60_000);
+    }
+
+    /**
+     * Many tabs of the same UI rescheduled in turn, so the quota of the UI is in use
+     */
+    @Benchmark
+    public void rescheduleManyTabs() {
+        tabs[next].scheduleCollapse(60_000);
+        next = (next + 1) % TABS;
+    }
+
+    /**
+     * Heap retained per pending task, reported as the bytesPerPendingTask counter. Schedules one task on each of
+     * {@link Footprint#TABS} new tabs and compares the used heap after a full GC. The time includes the GC and is of
+     * no interest.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void pendingTaskFootprint(Footprint footprint) {
+        for (SlideTab tab : footprint.tabs) {
+            tab.scheduleCollapse(60_000);
+        }
+        footprint.measure();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        static final int TABS = 10_000;
+
+        public long bytesPerPendingTask;
+
+        private final SlideTab[] tabs = new SlideTab[TABS];
+        private long heapBefore;
+        private BenchmarkVaadin vaadin;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            vaadin = BenchmarkVaadin.setUp();
+        }
+
+        /**
+         * Creates new tabs for every iteration, the tasks of the previous ones stay pending on the timer
+         */
+        @Setup(Level.Iteration)
+        public void createTabs() {
+            for (int i = 0; i < TABS; i++) {
+                tabs[i] = new SlideTabBuilder(new Div()).build();
+            }
+            heapBefore = usedHeap();
+        }
+
+        void measure() {
+            bytesPerPendingTask = (usedHeap() - heapBefore) / TABS;
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            vaadin.tearDown();
+        }
+
+        private static long usedHeap() {
+            for (int i = 0; i < 3; i++) {
+                System.gc();
+            }
+            return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.lipisak.vaadin.slidetab;
+
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.Span;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of creating a {@link SlideTab} from the {@link SlideTabBuilder}, e.g. for a view with many tabs. The content is
+ * created in every operation, {@link #contentOnly()} measures that part alone.
+ * <p>
+ * The mocked service runs in development mode, where Flow tracks the creation location of every component and parses
+ * the template of every new tab. Compare the builder options with each other rather than reading the absolute numbers
+ * as production costs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SlideTabBuilderBenchmark {
+
+    @Param({"0", "50"})
+    private int children;
+
+    private BenchmarkVaadin vaadin;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        vaadin = BenchmarkVaadin.setUp();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        vaadin.tearDown();
+    }
+
+    @Benchmark
+    public Div contentOnly() {
+        return createContent();
+    }
+
+    @Benchmark
+    public SlideTab build() {
+        return new SlideTabBuilder(createContent(), "Caption")
+                .mode(SlideMode.RIGHT)
+                .tabPosition(SlideTabPosition.MIDDLE)
+                .animationDuration(300)
+                .autoCollapseSlider(true)
+                .build();
+    }
+
+    /**
+     * Only the first chunk of the content is attached when the tab is created
+     */
+    @Benchmark
+    public SlideTab buildChunked() {
+        return new SlideTabBuilder(createContent(), "Caption")
+                .mode(SlideMode.RIGHT)
+                .chunkedContent(10)
+                .build();
+    }
+
+    private Div createContent() {
+        Div content = new Div();
+        for (int i = 0; i < children; i++) {
+            content.add(new Span("Item " + i));
+        }
+        return content;
+    }
+}
@@ -0,0 +1,228 @@
+package com.lipisak.vaadin.slidetab;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Headless load test of SlideTabs with scheduled expand/collapse commands, with many sessions on a mocked Vaadin
+ * service and no browser. Request threads act on random tabs of random sessions at a fixed rate and drop the client
+ * commands queued meanwhile, as writing the response would. Most requests call one of the schedule methods, the others
+ * are clicks on the tab or outside of it. Every tab has a toggle listener, so both the request threads and the timer
+ * thread dispatch toggle events.
+ * <p>
+ * Reports the heap used per session, the depth of the scheduler queue, the lag of fired tasks and the throughput.
+ * <p>
+ * Run with: mvn -Pbenchmarks test-compile exec:exec@load-test -Dload.args="sessions=500 rate=5000"
+ * <p>
+ * Arguments, all optional: sessions, tabs (per session), seconds, rate (requests per second over all request
+ * threads), threads, maxDelay (of the schedules in milliseconds), clicks (percentage of requests that are clicks),
+ * maxPerUI and maxPerSession (quotas, 0 for none).
+ */
+public class SlideTabLoadTest {
+
+    private final int sessionCount;
+    private final int tabsPerSession;
+    private final int seconds;
+    private final int rate;
+    private final int threads;
+    private final int maxDelay;
+    private final int clicks;
+
+    private final List<LoadSession> sessions = new ArrayList<>();
+    private final LongAdder toggled = new LongAdder();
+
+    private SlideTabLoadTest(Map<String, Integer> args) {
+        sessionCount = args.getOrDefault("sessions", 200);
+        tabsPerSession = args.getOrDefault("tabs", 5);
+        seconds = args.getOrDefault("seconds", 20);
+        rate = args.getOrDefault("rate", 2000);
+        threads = args.getOrDefault("threads", 4);
+        maxDelay = args.getOrDefault("maxDelay", 2000);
+        clicks = args.getOrDefault("clicks", 30);
+        DefaultScheduleStrategy.setQuota(args.getOrDefault("maxPerSession", 0), args.getOrDefault("maxPerUI", 0),
+                DefaultScheduleStrategy.OverflowPolicy.REPLACE_OLDEST);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, Integer> parsed = new HashMap<>();
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            parsed.put(keyValue[0], Integer.parseInt(keyValue[1]));
+        }
+        BenchmarkVaadin vaadin = BenchmarkVaadin.setUp();
+        try {
+            new SlideTabLoadTest(parsed).run(VaadinService.getCurrent());
+        } finally {
+            vaadin.tearDown();
+        }
+    }
+
+    private void run(VaadinService service) throws InterruptedException {
+        long heapBefore = usedHeap();
+        for (int i = 0; i < sessionCount; i++) {
+            sessions.add(new LoadSession(service, tabsPerSession));
+        }
+        long heapPerSession = (usedHeap() - heapBefore) / sessionCount;
+
+        ScheduleMetrics.reset();
+        toggled.reset();
+        long pendingBefore = ScheduleMetrics.getPendingCount();
+        long maxPending = 0;
+        long pendingSum = 0;
+        int samples = 0;
+
+        ExecutorService requestThreads = Executors.newFixedThreadPool(threads);
+        long nanosPerRequest = TimeUnit.SECONDS.toNanos(1) * threads / rate;
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        for (int i = 0; i < threads; i++) {
+            requestThreads.execute(() -> sendRequests(end, nanosPerRequest));
+        }
+        while (System.nanoTime() < end) {
+            Thread.sleep(100);
+            long pending = ScheduleMetrics.getPendingCount() - pendingBefore;
+            maxPending = Math.max(maxPending, pending);
+            pendingSum += pending;
+            samples++;
+        }
+        requestThreads.shutdown();
+        requestThreads.awaitTermination(10, TimeUnit.SECONDS);
+
+        System.out.printf("sessions             %d, %d tabs each%n", sessionCount, tabsPerSession);
+        System.out.printf("heap per session     %d bytes%n", heapPerSession);
+        System.out.printf("scheduled            %d (%.0f/s)%n", ScheduleMetrics.getScheduledCount(),
+                ScheduleMetrics.getScheduledCount() / (double) seconds);
+        System.out.printf("cancelled            %d%n", ScheduleMetrics.getCancelledCount());
+        System.out.printf("throttled            %d%n", ScheduleMetrics.getThrottledCount());
+        System.out.printf("fired                %d (%.0f/s)%n", ScheduleMetrics.getFiredCount(),
+                ScheduleMetrics.getFiredPerSecond());
+        System.out.printf("toggle events        %d (%.0f/s)%n", toggled.sum(), toggled.sum() / (double) seconds);
+        System.out.printf("queue depth          avg %d, max %d%n", samples == 0 ? 0 : pendingSum / samples,
+                maxPending);
+        System.out.printf("fire lag             avg %.2f ms, max %d ms%n", ScheduleMetrics.getAverageFireLagMillis(),
+                ScheduleMetrics.getMaxFireLagMillis());
+    }
+
+    private void sendRequests(long end, long nanosPerRequest) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long next = System.nanoTime();
+        while (next < end) {
+            LoadSession session = sessions.get(random.nextInt(sessions.size()));
+            session.request(random.nextInt(tabsPerSession), random.nextInt(100), random.nextInt(maxDelay + 1));
+            next += nanosPerRequest;
+            long sleep = next - System.nanoTime();
+            if (sleep > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * A session with a single UI holding the tabs. The mocked service has no HTTP session to keep the lock in, so
+     * each session has its own.
+     */
+    private class LoadSession extends VaadinSession {
+
+        private final Lock lock = new ReentrantLock();
+        private final UI ui = new UI();
+        private final SlideTab[] tabs;
+
+        private LoadSession(VaadinService service, int tabCount) {
+            super(service);
+            ui.getInternals().setSession(this);
+            tabs = new SlideTab[tabCount];
+            inUI(() -> {
+                for (int i = 0; i < tabCount; i++) {
+                    tabs[i] = new SlideTabBuilder(new Div(), "Tab " + i).autoCollapseSlider(true).build();
+                    tabs[i].addToggleListener(event -> toggled.increment());
+                    ui.add(tabs[i]);
+                }
+                respond();
+            });
+        }
+
+        @Override
+        public Lock getLockInstance() {
+            return lock;
+        }
+
+        /**
+         * Acts on a tab as a request from the browser would, and drops the client commands queued since the last
+         * request
+         *
+         * @param tab           index of the tab
+         * @param action        0-99, below the clicks percentage a click, otherwise a schedule
+         * @param delayMillis   delay of a schedule
+         */
+        private void request(int tab, int action, int delayMillis) {
+            SlideTab slideTab = tabs[tab];
+            inUI(() -> {
+                if (action < clicks) {
+                    if (action % 2 == 0) {
+                        slideTab.toggle();
+                    } else {
+                        slideTab.onOutsideClicked();
+                    }
+                } else {
+                    switch (action % 4) {
+                        case 0 -> slideTab.scheduleExpand(delayMillis);
+                        case 1 -> slideTab.scheduleCollapse(delayMillis);
+                        case 2 -> slideTab.scheduleToggle(delayMillis);
+                        default -> slideTab.scheduleExpand(action % 8 == 3, false, delayMillis);
+                    }
+                }
+                respond();
+            });
+        }
+
+        /**
+         * Turns the client calls queued in the state tree into invocations and drops them, as writing the response
+         * would
+         */
+        private void respond() {
+            ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+            ui.getInternals().dumpPendingJavaScriptInvocations();
+        }
+
+        private void inUI(Runnable runnable) {
+            lock();
+            Map<Class<?>, CurrentInstance> previous = CurrentInstance.setCurrent(ui);
+            try {
+                runnable.run();
+            } finally {
+                CurrentInstance.restoreInstances(previous);
+                unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.lipisak.vaadin.slidetab;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Div;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server side cost of expanding and collapsing an attached {@link SlideTab}, including dispatching the toggle event to
+ * its listeners and queueing the client command. The queued commands are dropped in every operation, as they would be
+ * once written to the response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SlideTabToggleBenchmark {
+
+    @Param({"0", "4"})
+    private int listeners;
+
+    @Param({"true", "false"})
+    private boolean tracing;
+
+    private BenchmarkVaadin vaadin;
+    private UI ui;
+    private SlideTab tab;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        vaadin = BenchmarkVaadin.setUp();
+        ui = UI.getCurrent();
+        tab = new SlideTabBuilder(new Div()).build();
+        for (int i = 0; i < listeners; i++) {
+            tab.addToggleListener(blackhole::consume);
+        }
+        tab.setTracingEnabled(tracing);
+        tab.setTransitionTrackingEnabled(true);
+        ui.add(tab);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        vaadin.tearDown();
+    }
+
+    /**
+     * A full expand and collapse, each acknowledged by the client once its transition has ended
+     */
+    @Benchmark
+    public Object expandCollapse() {
+        tab.expand();
+        tab.onTransitionEnd(true, 200);
+        tab.collapse();
+        tab.onTransitionEnd(false, 0);
+        return respond();
+    }
+
+    /**
+     * Clicks on the tab faster than the transitions end, so every toggle reverses the running one
+     */
+    @Benchmark
+    public Object toggle() {
+        tab.toggle();
+        return respond();
+    }
+
+    /**
+     * Turns the queued client calls into invocations and drops them, as writing the response would
+     */
+    private Object respond() {
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        return ui.getInternals().dumpPendingJavaScriptInvocations();
+    }
+}
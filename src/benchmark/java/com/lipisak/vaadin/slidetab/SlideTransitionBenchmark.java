@@ -0,0 +1,51 @@
+package com.lipisak.vaadin.slidetab;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@link SlideTransition} state machine alone, which runs for every expand, collapse and acknowledgement
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlideTransitionBenchmark {
+
+    private final SlideTransition transition = new SlideTransition();
+
+    /**
+     * An animated expand and collapse, each acknowledged
+     */
+    @Benchmark
+    public SlideState requestAndAcknowledge() {
+        transition.request(true, true);
+        transition.acknowledge(true);
+        transition.request(false, true);
+        transition.acknowledge(false);
+        return transition.getState();
+    }
+
+    /**
+     * An expand reversed before it has ended, followed by the stale acknowledgement of the expand
+     */
+    @Benchmark
+    public SlideState reverse() {
+        transition.request(true, true);
+        transition.request(false, true);
+        transition.acknowledge(true);
+        transition.acknowledge(false);
+        return transition.getState();
+    }
+
+    /**
+     * Repeated requests for the state the panel is already in, which must not send anything
+     */
+    @Benchmark
+    public boolean redundantRequest() {
+        return transition.request(false, true);
+    }
+}
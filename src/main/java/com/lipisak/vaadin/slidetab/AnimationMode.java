@@ -0,0 +1,19 @@
+package com.lipisak.vaadin.slidetab;
+
+/**
+ * How the {@link SlideTab} panel is animated when expanding or collapsing
+ */
+public enum AnimationMode {
+    /**
+     * animated with the configured animation duration
+     */
+    FULL,
+    /**
+     * animated with a short duration, for clients that can not keep up with the full animation
+     */
+    REDUCED,
+    /**
+     * not animated, for slow clients or users that prefer reduced motion
+     */
+    INSTANT
+}
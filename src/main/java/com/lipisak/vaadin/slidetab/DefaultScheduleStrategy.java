@@ -1,26 +1,204 @@
 package com.lipisak.vaadin.slidetab;
 
+import com.vaadin.flow.server.VaadinSession;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Timer;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The default {@link ScheduleStrategy} uses a static {@link Timer} instance for scheduling, and cancels any previously
  * scheduled task when a new task is scheduled.
+ * <p>
+ * As the timer is shared by all sessions, the number of pending tasks per session and per UI can be limited with
+ * {@link #setQuota(int, int, OverflowPolicy)}, which is unlimited by default.
+ * <p>
+ * Only a pending task and its deadline are serialized. When deserialized, e.g. on another node after session
+ * replication, the task is not scheduled right away but at the end of the first request the session handles, see
+ * {@link SlideTabServiceInitListener}, or when the tab is used before that, see {@link #resumePending()}.
  */
 public class DefaultScheduleStrategy implements ScheduleStrategy {
 
-    private SlideTab.TabTask currentTask;
+    /**
+     * What to do with a task that is scheduled while its session or UI already has the maximum number of pending tasks
+     */
+    public enum OverflowPolicy {
+        /**
+         * the new task is dropped
+         */
+        REJECT,
+        /**
+         * the oldest pending task of the session or UI is cancelled to make room for the new task
+         */
+        REPLACE_OLDEST,
+        /**
+         * the new task waits until a pending task of the session or UI has fired, keeping its original deadline if
+         * that has not yet passed. A tab only ever has one waiting task, as rescheduling replaces it. Waiting tasks
+         * are scheduled in arrival order within their session. There is no ordering across sessions, as a slot freed
+         * by one session can not be used by another.
+         */
+        COALESCE
+    }
+
+    /**
+     * Number of cancelled tasks after which the timer queue is purged, 0 never purges. Read once from the system
+     * property slidetab.purgeThreshold, defaults to 256.
+     */
+    static final int PURGE_THRESHOLD = Integer.getInteger("slidetab.purgeThreshold", 256);
+
+    private static final AtomicInteger cancelledSincePurge = new AtomicInteger();
+    // Strategies deserialized with a pending task, by the session they were deserialized in. Weak, as a session that
+    // is deserialized but never used again must not keep anything alive.
+    private static final Map<VaadinSession, List<WeakReference<DefaultScheduleStrategy>>> deserializedPending =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private transient SlideTab.TabTask currentTask;
+    // Deadline of a deserialized task that has not been scheduled again yet, 0 if none
+    private transient long resumeDeadline;
 
     @Override
     public void schedule(SlideTab.TabTask tabTask, int delayMillis) {
         if (currentTask != null) {
-            currentTask.cancel();
+            cancel(currentTask);
         }
         currentTask = tabTask;
-        TimerHolder.INSTANCE.schedule(currentTask, delayMillis);
+        resumeDeadline = 0;
+        ScheduleQuota.schedule(currentTask, delayMillis);
+    }
+
+    /**
+     * Schedules the task that was pending when this strategy was serialized, with its remaining delay. Only the first
+     * call schedules it, so it is safe to call whenever the tab is used.
+     */
+    @Override
+    public void resumePending() {
+        long deadline = resumeDeadline;
+        if (deadline != 0) {
+            resumeDeadline = 0;
+            ScheduleQuota.schedule(currentTask, (int) Math.max(0, deadline - System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Schedules the pending tasks of all strategies that were deserialized with the session, e.g. once it handles its
+     * first request on a new node
+     */
+    static void resumeDeserialized(VaadinSession session) {
+        if (deserializedPending.isEmpty()) {
+            return;
+        }
+        List<WeakReference<DefaultScheduleStrategy>> strategies = deserializedPending.remove(session);
+        if (strategies != null) {
+            session.access(() -> strategies.forEach(strategy -> {
+                DefaultScheduleStrategy resumable = strategy.get();
+                if (resumable != null) {
+                    resumable.resumePending();
+                }
+            }));
+        }
+    }
+
+    /**
+     * Limits the number of pending tasks in the shared timer per session and per UI, for all tabs using a
+     * DefaultScheduleStrategy. Submissions over the limit are counted in {@link ScheduleMetrics#getThrottledCount()}.
+     *
+     * @param maxPerSession     maximum number of pending tasks per session, 0 for unlimited
+     * @param maxPerUI          maximum number of pending tasks per UI, 0 for unlimited
+     * @param overflowPolicy    what to do with tasks over the limit
+     */
+    public static void setQuota(int maxPerSession, int maxPerUI, OverflowPolicy overflowPolicy) {
+        ScheduleQuota.configure(maxPerSession, maxPerUI, overflowPolicy);
+    }
+
+    /**
+     * Returns the maximum number of pending tasks per session, 0 if unlimited
+     */
+    public static int getMaxPendingPerSession() {
+        return ScheduleQuota.getMaxPerSession();
+    }
+
+    /**
+     * Returns the maximum number of pending tasks per UI, 0 if unlimited
+     */
+    public static int getMaxPendingPerUI() {
+        return ScheduleQuota.getMaxPerUI();
+    }
+
+    /**
+     * Returns what is done with tasks over the limit
+     */
+    public static OverflowPolicy getOverflowPolicy() {
+        return ScheduleQuota.getOverflowPolicy();
+    }
+
+    static void scheduleOnTimer(SlideTab.TabTask tabTask, int delayMillis) {
+        // Counted as pending before it is on the timer, as it may run right away
+        tabTask.enqueue();
+        try {
+            TimerHolder.INSTANCE.schedule(tabTask, delayMillis);
+        } catch (RuntimeException e) {
+            tabTask.dequeue();
+            throw e;
+        }
+        ScheduleMetrics.onScheduled();
+    }
+
+    static void cancel(SlideTab.TabTask tabTask) {
+        if (tabTask.cancel()) {
+            onCancelled();
+        }
+    }
+
+    /**
+     * A cancelled task stays in the timer queue until its scheduled time, so rescheduling with long delays would keep
+     * growing the queue. Purge it once enough cancelled tasks have piled up.
+     */
+    static void onCancelled() {
+        ScheduleMetrics.onCancelled();
+        if (PURGE_THRESHOLD > 0 && cancelledSincePurge.incrementAndGet() >= PURGE_THRESHOLD) {
+            cancelledSincePurge.set(0);
+            TimerHolder.INSTANCE.purge();
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        long deadline = resumeDeadline;
+        if (deadline == 0 && currentTask != null && currentTask.isPending()) {
+            deadline = currentTask.scheduledExecutionTime();
+        }
+        // A task still waiting to be resumed is written as pending too
+        out.writeObject(deadline != 0 ? currentTask : null);
+        if (deadline != 0) {
+            out.writeLong(deadline);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        SlideTab.TabTask pendingTask = (SlideTab.TabTask) in.readObject();
+        if (pendingTask != null) {
+            // Not scheduled yet, as a session may be deserialized several times without the copies ever being used,
+            // and the tab is not attached to its UI yet
+            currentTask = pendingTask;
+            resumeDeadline = Math.max(1, in.readLong());
+            VaadinSession session = VaadinSession.getCurrent();
+            if (session != null) {
+                deserializedPending.computeIfAbsent(session, key -> new ArrayList<>()).add(new WeakReference<>(this));
+            }
+        }
     }
 
     // Use a holder to defer initialization until TimerHolder.INSTANCE is accessed, in a thead-safe manner
     public static class TimerHolder {
         static final Timer INSTANCE = new Timer("slide-tab-timer", true);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,130 @@
+package com.lipisak.vaadin.slidetab;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JVM wide counters for the scheduled expand/collapse/toggle commands of all {@link SlideTab}s, for capacity
+ * planning and monitoring. Scheduling and cancelling are counted by {@link DefaultScheduleStrategy} and
+ * {@link SlideTabRotation}, firing is counted for every {@link SlideTab.TabTask} and rotation run on a
+ * {@link java.util.Timer}.
+ */
+public final class ScheduleMetrics {
+
+    private static final LongAdder scheduled = new LongAdder();
+    private static final LongAdder cancelled = new LongAdder();
+    private static final LongAdder fired = new LongAdder();
+    private static final LongAdder throttled = new LongAdder();
+    // The current queue depth rather than a count since the last reset, so it is never reset
+    private static final LongAdder pending = new LongAdder();
+    private static final LongAdder totalFireLagMillis = new LongAdder();
+    private static final LongAccumulator maxFireLagMillis = new LongAccumulator(Math::max, 0);
+    private static final AtomicLong resetAt = new AtomicLong(System.currentTimeMillis());
+
+    private ScheduleMetrics() {
+    }
+
+    static void onScheduled() {
+        scheduled.increment();
+    }
+
+    static void onQueued() {
+        pending.increment();
+    }
+
+    /**
+     * Called exactly once for every queued task, when it either runs or is cancelled
+     */
+    static void onDequeued() {
+        pending.decrement();
+    }
+
+    static void onCancelled() {
+        cancelled.increment();
+    }
+
+    static void onThrottled() {
+        throttled.increment();
+    }
+
+    static void onFired(long lagMillis) {
+        fired.increment();
+        totalFireLagMillis.add(lagMillis);
+        maxFireLagMillis.accumulate(lagMillis);
+    }
+
+    /**
+     * Returns the number of tasks scheduled since the last reset
+     */
+    public static long getScheduledCount() {
+        return scheduled.sum();
+    }
+
+    /**
+     * Returns the number of tasks cancelled by a newer schedule since the last reset
+     */
+    public static long getCancelledCount() {
+        return cancelled.sum();
+    }
+
+    /**
+     * Returns the number of tasks that have fired since the last reset
+     */
+    public static long getFiredCount() {
+        return fired.sum();
+    }
+
+    /**
+     * Returns the number of tasks that exceeded the quota of their session or UI since the last reset
+     *
+     * @see DefaultScheduleStrategy#setQuota(int, int, DefaultScheduleStrategy.OverflowPolicy)
+     */
+    public static long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    /**
+     * Returns the number of tasks that have been scheduled by a {@link DefaultScheduleStrategy} and have neither run
+     * nor been cancelled yet, i.e. the depth of the scheduler queue. Not affected by {@link #reset()}.
+     */
+    public static long getPendingCount() {
+        return pending.sum();
+    }
+
+    /**
+     * Returns the average time between the scheduled time of a task and it actually firing, in milliseconds
+     */
+    public static double getAverageFireLagMillis() {
+        long count = getFiredCount();
+        return count == 0 ? 0 : (double) totalFireLagMillis.sum() / count;
+    }
+
+    /**
+     * Returns the largest time between the scheduled time of a task and it actually firing, in milliseconds
+     */
+    public static long getMaxFireLagMillis() {
+        return maxFireLagMillis.get();
+    }
+
+    /**
+     * Returns the number of fired tasks per second since the last reset
+     */
+    public static double getFiredPerSecond() {
+        long elapsed = System.currentTimeMillis() - resetAt.get();
+        return elapsed <= 0 ? 0 : getFiredCount() * 1000.0 / elapsed;
+    }
+
+    /**
+     * Resets all counters, except for the pending count
+     */
+    public static void reset() {
+        scheduled.reset();
+        cancelled.reset();
+        fired.reset();
+        throttled.reset();
+        totalFireLagMillis.reset();
+        maxFireLagMillis.reset();
+        resetAt.set(System.currentTimeMillis());
+    }
+}
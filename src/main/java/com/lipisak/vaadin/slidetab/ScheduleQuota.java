@@ -0,0 +1,202 @@
+package com.lipisak.vaadin.slidetab;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.VaadinSession;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Keeps track of the tasks pending in the shared timer of {@link DefaultScheduleStrategy} per session and per UI, so
+ * a single session or UI can not fill the queue and delay the timers of everybody else.
+ * <p>
+ * Sessions never compete for slots, as every slot belongs to a session, or to a UI of a session. Tasks waiting for a
+ * slot are therefore kept per session, and only the waiting tasks of the session that freed a slot are looked at, in
+ * the order they arrived. There is no ordering across sessions, e.g. round-robin, as there is no shared slot to take
+ * turns on.
+ * <p>
+ * Tasks of tabs that are not attached to a UI are not limited.
+ */
+final class ScheduleQuota {
+
+    private static final Object LOCK = new Object();
+
+    // Pending tasks in the order they were scheduled, keyed by both their session and their UI
+    private static final Map<Object, Deque<SlideTab.TabTask>> pending = new HashMap<>();
+    // The session and UI of each pending task, as the tab may have been detached when the task is released
+    private static final Map<SlideTab.TabTask, QueuedTask> tracked = new HashMap<>();
+    // Tasks waiting for a free slot by session, only used by OverflowPolicy.COALESCE
+    private static final Map<VaadinSession, Deque<QueuedTask>> waiting = new HashMap<>();
+
+    // Set once any task has been tracked, so releasing is free as long as quotas have never been used
+    private static volatile boolean used;
+
+    private static volatile int maxPerSession;
+    private static volatile int maxPerUI;
+    private static volatile DefaultScheduleStrategy.OverflowPolicy overflowPolicy =
+            DefaultScheduleStrategy.OverflowPolicy.REJECT;
+
+    private ScheduleQuota() {
+    }
+
+    static void configure(int maxPerSession, int maxPerUI, DefaultScheduleStrategy.OverflowPolicy overflowPolicy) {
+        ScheduleQuota.maxPerSession = Math.max(0, maxPerSession);
+        ScheduleQuota.maxPerUI = Math.max(0, maxPerUI);
+        ScheduleQuota.overflowPolicy = overflowPolicy;
+    }
+
+    static int getMaxPerSession() {
+        return maxPerSession;
+    }
+
+    static int getMaxPerUI() {
+        return maxPerUI;
+    }
+
+    static DefaultScheduleStrategy.OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    private static boolean isEnabled() {
+        return maxPerSession > 0 || maxPerUI > 0;
+    }
+
+    /**
+     * Schedules the task on the timer if the quotas of its session and UI allow it, otherwise applies the overflow
+     * policy
+     */
+    static void schedule(SlideTab.TabTask tabTask, int delayMillis) {
+        UI ui = isEnabled() ? tabTask.getSlideTab().getUI().orElse(null) : null;
+        if (ui == null) {
+            DefaultScheduleStrategy.scheduleOnTimer(tabTask, delayMillis);
+            return;
+        }
+        VaadinSession session = ui.getSession();
+        synchronized (LOCK) {
+            if (!fits(session, ui)) {
+                ScheduleMetrics.onThrottled();
+                switch (overflowPolicy) {
+                    case REJECT:
+                        // Never runs, so it must not be reported as pending
+                        tabTask.cancel();
+                        return;
+                    case COALESCE:
+                        waiting.computeIfAbsent(session, key -> new ArrayDeque<>())
+                                .add(new QueuedTask(tabTask, session, ui, System.currentTimeMillis() + delayMillis));
+                        return;
+                    case REPLACE_OLDEST:
+                        cancelOldest(session, ui);
+                        break;
+                }
+            }
+            // Scheduled before it is tracked, so a task the timer rejects does not hold a slot forever. Should it run
+            // right away, releasing it waits for the lock until it has been tracked.
+            used = true;
+            DefaultScheduleStrategy.scheduleOnTimer(tabTask, delayMillis);
+            track(new QueuedTask(tabTask, session, ui, 0));
+        }
+    }
+
+    /**
+     * Called when a task has run or has been cancelled, frees its slot and schedules waiting tasks that now fit
+     */
+    static void release(SlideTab.TabTask tabTask) {
+        if (!used) {
+            return;
+        }
+        synchronized (LOCK) {
+            QueuedTask queuedTask = tracked.remove(tabTask);
+            if (queuedTask == null) {
+                if (!waiting.isEmpty()) {
+                    // The tab may have been detached, so its session is not known
+                    waiting.values().removeIf(tasks -> {
+                        tasks.removeIf(waitingTask -> waitingTask.tabTask == tabTask);
+                        return tasks.isEmpty();
+                    });
+                }
+                return;
+            }
+            untrack(queuedTask.session, tabTask);
+            untrack(queuedTask.ui, tabTask);
+
+            Deque<QueuedTask> sessionWaiting = waiting.get(queuedTask.session);
+            if (sessionWaiting == null) {
+                return;
+            }
+            // Waiting tasks are scheduled in the order they arrived, as soon as their UI has room too
+            Iterator<QueuedTask> waitingTasks = sessionWaiting.iterator();
+            while (waitingTasks.hasNext()) {
+                QueuedTask waitingTask = waitingTasks.next();
+                if (fits(waitingTask.session, waitingTask.ui)) {
+                    waitingTasks.remove();
+                    try {
+                        DefaultScheduleStrategy.scheduleOnTimer(waitingTask.tabTask,
+                                (int) Math.max(0, waitingTask.deadline - System.currentTimeMillis()));
+                    } catch (IllegalStateException e) {
+                        // Cancelled meanwhile, or the timer is gone, either way the task will never run
+                        continue;
+                    }
+                    track(waitingTask);
+                }
+            }
+            if (sessionWaiting.isEmpty()) {
+                waiting.remove(queuedTask.session);
+            }
+        }
+    }
+
+    private static boolean fits(VaadinSession session, UI ui) {
+        return (maxPerSession <= 0 || count(session) < maxPerSession) && (maxPerUI <= 0 || count(ui) < maxPerUI);
+    }
+
+    private static int count(Object owner) {
+        Deque<SlideTab.TabTask> tasks = pending.get(owner);
+        return tasks == null ? 0 : tasks.size();
+    }
+
+    private static void track(QueuedTask queuedTask) {
+        tracked.put(queuedTask.tabTask, queuedTask);
+        pending.computeIfAbsent(queuedTask.session, key -> new ArrayDeque<>()).add(queuedTask.tabTask);
+        pending.computeIfAbsent(queuedTask.ui, key -> new ArrayDeque<>()).add(queuedTask.tabTask);
+    }
+
+    private static void untrack(Object owner, SlideTab.TabTask tabTask) {
+        Deque<SlideTab.TabTask> tasks = pending.get(owner);
+        if (tasks != null && tasks.remove(tabTask) && tasks.isEmpty()) {
+            pending.remove(owner);
+        }
+    }
+
+    /**
+     * Cancels the oldest pending task of the UI if its quota is used up, otherwise the oldest of the session
+     */
+    private static void cancelOldest(VaadinSession session, UI ui) {
+        Deque<SlideTab.TabTask> tasks = maxPerUI > 0 && count(ui) >= maxPerUI ? pending.get(ui) : pending.get(session);
+        if (tasks != null && !tasks.isEmpty()) {
+            // Cancelling releases the task, see SlideTab.TabTask.cancel()
+            DefaultScheduleStrategy.cancel(tasks.peekFirst());
+        }
+    }
+
+    /**
+     * A task with the session and UI it counts against
+     */
+    private static class QueuedTask {
+
+        private final SlideTab.TabTask tabTask;
+        private final VaadinSession session;
+        private final UI ui;
+        // Only used while waiting for a free slot
+        private final long deadline;
+
+        private QueuedTask(SlideTab.TabTask tabTask, VaadinSession session, UI ui, long deadline) {
+            this.tabTask = tabTask;
+            this.session = session;
+            this.ui = ui;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -1,14 +1,31 @@
 package com.lipisak.vaadin.slidetab;
 
+import java.io.Serializable;
+
 /**
  * Implementations of this class are responsible for scheduling expand/collapse/toggle commands for the {@link SlideTab}.
+ * <p>
+ * The strategy is serialized together with the {@link SlideTab}, so implementations should not serialize timers or
+ * threads. Pending tasks should not be scheduled again while being deserialized, but in {@link #resumePending()}.
+ * <p>
+ * An application can share one strategy between all tabs by providing it through Vaadin's
+ * {@link com.vaadin.flow.di.Lookup}, e.g. as a Spring bean or as a {@link java.util.ServiceLoader} service. Such a
+ * strategy receives the tasks of all tabs, and should use {@link SlideTab.TabTask#getSlideTab()} to cancel a previously
+ * scheduled task of the same tab. It is not serialized with the tabs, but looked up again.
  *
  * @see DefaultScheduleStrategy
  */
-public interface ScheduleStrategy {
+public interface ScheduleStrategy extends Serializable {
 
     /**
      * Schedules the given {@link SlideTab.TabTask} after the given delay.
      */
     void schedule(SlideTab.TabTask tabTask, int delayMillis);
+
+    /**
+     * Called whenever the tab is used, e.g. attached or interacted with, to schedule a task that was pending when the
+     * strategy was serialized. Must do nothing if there is no such task, or if it has already been scheduled.
+     */
+    default void resumePending() {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.lipisak.vaadin.slidetab;
+
+import com.vaadin.flow.component.ComponentEvent;
+
+/**
+ * Fired when the client has chosen an animation mode, based on the frame times of the first animation and the
+ * reduced motion preference of the user.
+ *
+ * @see SlideTab#setAnimationMode(AnimationMode)
+ */
+public class SlideAnimationModeEvent extends ComponentEvent<SlideTab> {
+
+    private final AnimationMode animationMode;
+
+    /**
+     * Creates a new event using the given source and indicator whether the
+     * event originated from the client side or the server side.
+     *
+     * @param source        the source component
+     * @param fromClient    <code>true</code> if the event originated from the client
+     * @param animationMode the chosen animation mode
+     */
+    public SlideAnimationModeEvent(SlideTab source, boolean fromClient, AnimationMode animationMode) {
+        super(source, fromClient);
+        this.animationMode = animationMode;
+    }
+
+    @Override
+    public SlideTab getSource() {
+        return super.getSource();
+    }
+
+    /**
+     * Returns the animation mode chosen by the client
+     */
+    public AnimationMode getAnimationMode() {
+        return animationMode;
+    }
+}
@@ -0,0 +1,38 @@
+package com.lipisak.vaadin.slidetab;
+
+import com.vaadin.flow.component.ComponentEvent;
+
+/**
+ * Fired when the user has resized the panel by dragging its edge.
+ *
+ * @see SlideTab#setResizable(boolean)
+ */
+public class SlideResizeEvent extends ComponentEvent<SlideTab> {
+
+    private final int size;
+
+    /**
+     * Creates a new event using the given source and indicator whether the
+     * event originated from the client side or the server side.
+     *
+     * @param source     the source component
+     * @param fromClient <code>true</code> if the event originated from the client
+     * @param size       the new width/height (depending on the mode) in pixels
+     */
+    public SlideResizeEvent(SlideTab source, boolean fromClient, int size) {
+        super(source, fromClient);
+        this.size = size;
+    }
+
+    @Override
+    public SlideTab getSource() {
+        return super.getSource();
+    }
+
+    /**
+     * Returns the new width/height (depending on the mode) in pixels
+     */
+    public int getSize() {
+        return size;
+    }
+}
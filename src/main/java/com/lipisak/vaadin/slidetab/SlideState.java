@@ -0,0 +1,51 @@
+package com.lipisak.vaadin.slidetab;
+
+/**
+ * The state of the {@link SlideTab} panel, including the transition between expanded and collapsed
+ */
+public enum SlideState {
+    /**
+     * the panel is collapsed
+     */
+    COLLAPSED(false),
+    /**
+     * the panel is animating from collapsed to expanded, only reported with transition tracking
+     *
+     * @see SlideTab#setTransitionTrackingEnabled(boolean)
+     */
+    EXPANDING(true),
+    /**
+     * the panel is expanded
+     */
+    EXPANDED(true),
+    /**
+     * the panel is animating from expanded to collapsed, only reported with transition tracking
+     *
+     * @see SlideTab#setTransitionTrackingEnabled(boolean)
+     */
+    COLLAPSING(false);
+
+    private final boolean expanded;
+
+    SlideState(final boolean expanded) {
+        this.expanded = expanded;
+    }
+
+    /**
+     * the panel is expanded or expanding
+     *
+     * @return is expanded or expanding
+     */
+    public boolean isExpanded() {
+        return expanded;
+    }
+
+    /**
+     * the panel is animating
+     *
+     * @return is expanding or collapsing
+     */
+    public boolean isTransitioning() {
+        return this == EXPANDING || this == COLLAPSING;
+    }
+}
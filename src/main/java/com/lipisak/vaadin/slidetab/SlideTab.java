@@ -5,11 +5,25 @@ import com.vaadin.flow.component.dependency.JsModule;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.littemplate.LitTemplate;
 import com.vaadin.flow.component.template.Id;
+import com.vaadin.flow.di.Lookup;
 import com.vaadin.flow.server.Command;
+import com.vaadin.flow.server.VaadinContext;
+import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.shared.Registration;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
 import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 /**
  * A component for showing a tab that when clicked expands a panel
@@ -27,18 +41,52 @@ public class SlideTab extends LitTemplate implements HasComponents, HasSize, Has
     private Component collapseComponent;
 
     private final SlideMode slideMode;
-    private final ScheduleStrategy scheduleStrategy;
+    // Either set through the builder, or a DefaultScheduleStrategy if no shared strategy is available
+    private ScheduleStrategy scheduleStrategy;
+    // Shared by all tabs and managed by the container, so it is looked up again rather than serialized
+    private transient ScheduleStrategy sharedScheduleStrategy;
 
-    private boolean expanded;
+    private final SlideTransition transition = new SlideTransition();
+    private boolean transitionTracking;
     private boolean autoCollapsing;
     private boolean toggleEnabled;
+    private boolean resizable;
 
     private int pixelSize;
+    // Size of the expanded content as measured by the client, if it has not been set explicitly
+    private int measuredSize;
     private int animationDuration;
+    private AnimationMode detectedAnimationMode;
+    private AnimationMode forcedAnimationMode;
     private int zIndex;
+    private int idleCollapseDelay;
+
+    private HasComponents chunkedContent;
+    private int contentChunkSize;
+    private final Deque<Component> deferredContent = new ArrayDeque<>();
+    // The child of the chunked content that deferred children are attached after
+    private Component lastAttachedContent;
+
+    // Read by the timer thread, hence volatile/atomic
+    private volatile boolean clientVisible = true;
+    private final AtomicReference<Command> deferredCommand = new AtomicReference<>();
+
+    private String broadcastId;
+    private transient SlideTabBroadcaster.Subscription broadcastSubscription;
+
+    // The latest schedule, until its task has run or been cancelled. Recorded here rather than read from the task, as
+    // a ScheduleStrategy does not need to use a java.util.Timer.
+    private final AtomicReference<PendingSchedule> pendingSchedule = new AtomicReference<>();
+
+    private boolean tracing;
+    private int traceSequence;
+    // Traces are not kept over serialization, the client would not report them to the new node anyway
+    private transient long toggleStartedNanos;
+    private transient PendingTrace pendingTrace;
 
     public SlideTab(SlideTabBuilder builder) {
         add(builder.content);
+        deferContent(builder.content, builder.contentChunkSize);
 
         tabComponent.setHeight(builder.tabSize + "px");
         slideMode = builder.mode;
@@ -51,13 +99,12 @@ public class SlideTab extends LitTemplate implements HasComponents, HasSize, Has
         setTabPosition(builder.tabPosition);
         setClosingOnOutsideClick(builder.autoCollapseSlider);
         setTabVisible(builder.tabVisible);
+        setIdleCollapseDelay(builder.idleCollapseDelay);
+        setResizable(builder.resizable);
         setToggleEnabled(true);
 
-        if (builder.scheduleStrategy != null) {
-            scheduleStrategy = builder.scheduleStrategy;
-        } else {
-            scheduleStrategy = new DefaultScheduleStrategy();
-        }
+        scheduleStrategy = builder.scheduleStrategy;
+        getScheduleStrategy();
 
         if (builder.listeners != null) {
             builder.listeners.forEach(this::addToggleListener);
@@ -74,56 +121,107 @@ public class SlideTab extends LitTemplate implements HasComponents, HasSize, Has
      * Expands the SlideTab panel
      */
     public void expand() {
-        expand(false);
+        expand(false, true);
     }
 
     /**
      * Expands the SlideTab panel
      *
      * @param fromClient    For the toggle event, true if expansion was triggered by the client
+     * @param animated      false to expand without animation
      */
-    private void expand(boolean fromClient) {
-        if (!expanded && toggleEnabled) {
-            expanded = true;
-            doExpand();
-            fireEvent(new SlideToggleEvent(this, fromClient, true));
+    private void expand(boolean fromClient, boolean animated) {
+        resumeSchedule();
+        animated &= isAnimated();
+        if (toggleEnabled && transition.request(true, animated && transitionTracking)) {
+            PendingTrace trace = startTrace(true);
+            doExpand(trace == null ? 0 : trace.id, animated);
+            fireToggleEvent(new SlideToggleEvent(this, fromClient, true), trace);
         }
     }
 
-    private void doExpand() {
-        getElement().callJsFunction("expand", pixelSize, slideMode.isVertical());
+    private void doExpand(int traceId, boolean animated) {
+        getElement().callJsFunction("expand", pixelSize, slideMode.isVertical(), traceId, animated);
+    }
+
+    /**
+     * Renders the expanded state without animation, with the last measured size if no size has been set, so the
+     * client does not have to measure the content again
+     */
+    private void renderExpanded() {
+        int size = pixelSize > 0 ? pixelSize : measuredSize;
+        getElement().callJsFunction("expand", size, slideMode.isVertical(), 0, false);
     }
 
     /**
      * Collapses the SlideTab panel
      */
     public void collapse() {
-        collapse(false);
+        collapse(false, true);
     }
 
     /**
      * Collapses the SlideTab panel
      *
      * @param fromClient    For the toggle event, true if collapse was triggered by the client
+     * @param animated      false to collapse without animation
      */
-    private void collapse(boolean fromClient) {
-        if(expanded && toggleEnabled) {
-            expanded = false;
-            getElement().callJsFunction("collapse", slideMode.isVertical());
-            fireEvent(new SlideToggleEvent(this, fromClient, false));
+    private void collapse(boolean fromClient, boolean animated) {
+        resumeSchedule();
+        animated &= isAnimated();
+        if (toggleEnabled && transition.request(false, animated && transitionTracking)) {
+            PendingTrace trace = startTrace(false);
+            getElement().callJsFunction("collapse", slideMode.isVertical(), trace == null ? 0 : trace.id, animated);
+            fireToggleEvent(new SlideToggleEvent(this, fromClient, false), trace);
         }
     }
 
+    private boolean isAnimated() {
+        return animationDuration > 0 && getAnimationMode() != AnimationMode.INSTANT;
+    }
+
+    /**
+     * Starts a new trace for an expand or collapse if tracing is enabled
+     *
+     * @return the trace, or null if tracing is disabled
+     */
+    private PendingTrace startTrace(boolean expand) {
+        if (!tracing) {
+            return null;
+        }
+        long started = toggleStartedNanos != 0 ? toggleStartedNanos : System.nanoTime();
+        toggleStartedNanos = 0;
+        // Skip 0, which tells the client that the command is not traced
+        traceSequence = traceSequence == Integer.MAX_VALUE ? 1 : traceSequence + 1;
+        pendingTrace = new PendingTrace(traceSequence, expand, started);
+        return pendingTrace;
+    }
+
+    private void fireToggleEvent(SlideToggleEvent event, PendingTrace trace) {
+        if (trace == null) {
+            fireEvent(event);
+            return;
+        }
+        trace.commandQueuedNanos = System.nanoTime();
+        fireEvent(event);
+        trace.listenersDoneNanos = System.nanoTime();
+    }
+
     /**
      * Called by the client when clicking on the tab
      */
     @ClientCallable
     public void toggle() {
+        if (tracing) {
+            toggleStartedNanos = System.nanoTime();
+        }
         if (isExpanded()) {
-            collapse(true);
+            collapse(true, true);
         } else {
-            expand(true);
+            expand(true, true);
         }
+        // Consumed by the trace if the toggle resulted in a command, must not leak into a later one otherwise
+        toggleStartedNanos = 0;
     }
 
     /**
@@ -131,11 +229,192 @@ public class SlideTab extends LitTemplate implements HasComponents, HasSize, Has
      */
     @ClientCallable
     public void onOutsideClicked() {
-        if (autoCollapsing && expanded) {
-            collapse(true);
+        if (autoCollapsing && isExpanded()) {
+            collapse(true, true);
+        }
+    }
+
+    /**
+     * Called by the client when there has been no pointer or keyboard activity in the expanded panel for the idle
+     * collapse delay
+     */
+    @ClientCallable
+    public void onIdleTimeout() {
+        if (idleCollapseDelay > 0 && isExpanded()) {
+            collapse(true, true);
+        }
+    }
+
+    /**
+     * Called by the client while the panel is expanded, when it is idle, to attach the next chunk of the content
+     *
+     * @return true if there are more chunks to load
+     */
+    @ClientCallable
+    public boolean loadNextChunk() {
+        attachDeferredContent(contentChunkSize);
+        return !deferredContent.isEmpty();
+    }
+
+    /**
+     * Detaches the children of the content beyond the first chunk, to be attached in chunks by the client once the
+     * panel has been expanded
+     */
+    private void deferContent(Component content, int chunkSize) {
+        if (chunkSize <= 0 || !(content instanceof HasComponents)) {
+            return;
+        }
+        List<Component> children = content.getChildren().collect(Collectors.toList());
+        if (children.size() > chunkSize) {
+            chunkedContent = (HasComponents) content;
+            contentChunkSize = chunkSize;
+            List<Component> deferred = children.subList(chunkSize, children.size());
+            chunkedContent.remove(deferred);
+            deferredContent.addAll(deferred);
+            lastAttachedContent = children.get(chunkSize - 1);
+        }
+        updatePendingChunks();
+    }
+
+    /**
+     * Attaches up to the given number of deferred children, right after the ones attached before them, so children
+     * the application has added to the content meanwhile stay after them
+     */
+    private void attachDeferredContent(int count) {
+        if (!deferredContent.isEmpty()) {
+            int index = chunkedContent.getElement().indexOfChild(lastAttachedContent.getElement());
+            for (int i = 0; i < count && !deferredContent.isEmpty(); i++) {
+                Component next = deferredContent.poll();
+                if (index < 0) {
+                    // Removed by the application, so there is no position to keep
+                    chunkedContent.add(next);
+                } else {
+                    chunkedContent.addComponentAtIndex(++index, next);
+                }
+                lastAttachedContent = next;
+                contentChanged();
+            }
+        }
+        updatePendingChunks();
+    }
+
+    private void updatePendingChunks() {
+        getElement().setProperty("hasPendingChunks", !deferredContent.isEmpty());
+    }
+
+    /**
+     * Attaches all content that has not yet been loaded in chunks
+     */
+    public void loadAllContent() {
+        attachDeferredContent(deferredContent.size());
+    }
+
+    /**
+     * Forgets the measured size once more content has been attached, so the panel is measured again instead of being
+     * rendered clipped to the size of the smaller content
+     */
+    private void contentChanged() {
+        measuredSize = 0;
+    }
+
+    /**
+     * Returns true if all content is attached, false if some is still to be loaded in chunks
+     */
+    public boolean isContentLoaded() {
+        return deferredContent.isEmpty();
+    }
+
+    /**
+     * Called by the client when it has chosen an animation mode
+     *
+     * @param mode  name of the {@link AnimationMode}
+     */
+    @ClientCallable
+    public void onAnimationModeChanged(String mode) {
+        AnimationMode animationMode = AnimationMode.valueOf(mode);
+        if (animationMode != detectedAnimationMode) {
+            detectedAnimationMode = animationMode;
+            fireEvent(new SlideAnimationModeEvent(this, true, animationMode));
+        }
+    }
+
+    /**
+     * Called by the client when the tab is hidden or shown, either because the browser tab is in the background or
+     * because the element has been scrolled offscreen. Scheduled commands are deferred while the tab is hidden, and
+     * the latest one is run when it is visible again.
+     *
+     * @param visible   true if the tab is visible
+     */
+    @ClientCallable
+    public void onVisibilityChanged(boolean visible) {
+        resumeSchedule();
+        clientVisible = visible;
+        if (visible) {
+            Command command = deferredCommand.getAndSet(null);
+            if (command != null) {
+                command.execute();
+            }
+        }
+    }
+
+    /**
+     * Returns false if the client has reported the tab to be hidden, in which case scheduled commands are deferred
+     */
+    public boolean isClientVisible() {
+        return clientVisible;
+    }
+
+    /**
+     * Called by the client when an animated expand or collapse has ended, if transition tracking is enabled
+     *
+     * @param expanded  true if the ended transition was an expand
+     * @param size      the expanded width/height (depending on the mode) in pixels, 0 for a collapse
+     */
+    @ClientCallable
+    public void onTransitionEnd(boolean expanded, int size) {
+        if (transition.acknowledge(expanded) && size > 0) {
+            measuredSize = size;
         }
     }
 
+    /**
+     * Called by the client when the user has finished resizing the panel by dragging its edge
+     *
+     * @param size  the new width/height (depending on the mode) in pixels
+     */
+    @ClientCallable
+    public void onResized(int size) {
+        if (resizable && size > 0 && size != pixelSize) {
+            pixelSize = size;
+            fireEvent(new SlideResizeEvent(this, true, size));
+        }
+    }
+
+    /**
+     * Called by the client when a traced expand or collapse has finished its transition
+     *
+     * @param traceId                       id of the trace, as sent with the expand/collapse command
+     * @param clickToDispatchMillis         time from the click until the toggle was sent to the server, -1 if not
+     *                                      triggered by a click
+     * @param dispatchToCommandMillis       time from sending the toggle until the command was invoked, -1 if not
+     *                                      triggered by a click
+     * @param commandToTransitionEndMillis  time from the command being invoked until the transition ended
+     */
+    @ClientCallable
+    public void onTraceCompleted(int traceId, double clickToDispatchMillis, double dispatchToCommandMillis,
+                                 double commandToTransitionEndMillis) {
+        PendingTrace trace = pendingTrace;
+        if (trace == null || trace.id != traceId) {
+            // Superseded by a later expand/collapse, or tracing was disabled
+            return;
+        }
+        pendingTrace = null;
+        fireEvent(new SlideTraceEvent(this, trace.expand,
+                trace.commandQueuedNanos - trace.startedNanos,
+                trace.listenersDoneNanos - trace.commandQueuedNanos,
+                clickToDispatchMillis, dispatchToCommandMillis, commandToTransitionEndMillis));
+    }
+
     /**
      * Sets the caption of the tab
      */
@@ -205,11 +484,8 @@ public class SlideTab extends LitTemplate implements HasComponents, HasSize, Has
      */
     public void setClosingOnOutsideClick(boolean autoCollapsing) {
         this.autoCollapsing = autoCollapsing;
-        setElementClosingOnOutsideClick();
-    }
-
-    private void setElementClosingOnOutsideClick() {
-        getElement().callJsFunction("setClosingOnOutsideClick", autoCollapsing);
+        // A property is kept in sync on attach, unlike a function call that would have to be repeated
+        getElement().setProperty("isClosingOnOutsideClickEnabled", autoCollapsing);
     }
 
     /**
@@ -219,6 +495,25 @@ public class SlideTab extends LitTemplate implements HasComponents, HasSize, Has
         return autoCollapsing;
     }
 
+    /**
+     * Collapses the panel after it has been expanded for the given time without any pointer or keyboard activity
+     * inside it. The inactivity is tracked in the browser, so no round trips or timers are needed on the server
+     * until the panel is collapsed.
+     *
+     * @param idleMillis    inactivity in milliseconds before collapsing, 0 to disable
+     */
+    public void setIdleCollapseDelay(int idleMillis) {
+        this.idleCollapseDelay = Math.max(0, idleMillis);
+        getElement().setProperty("idleCollapseDelay", idleCollapseDelay);
+    }
+
+    /**
+     * Returns the inactivity in milliseconds before the expanded panel collapses, 0 if disabled
+     */
+    public int getIdleCollapseDelay() {
+        return idleCollapseDelay;
+    }
+
     /**
      * Returns the animation duration when expanding or collapsing the panel
      *
@@ -241,6 +536,33 @@ public class SlideTab extends LitTemplate implements HasComponents, HasSize, Has
         }
     }
 
+    /**
+     * Returns the animation mode in use, either the one set with {@link #setAnimationMode(AnimationMode)} or the
+     * one chosen by the client. {@link AnimationMode#FULL} until the client has chosen one.
+     */
+    public AnimationMode getAnimationMode() {
+        if (forcedAnimationMode != null) {
+            return forcedAnimationMode;
+        }
+        return detectedAnimationMode != null ? detectedAnimationMode : AnimationMode.FULL;
+    }
+
+    /**
+     * Forces the animation mode. By default, the client measures the frame times during the first animation and
+     * honors the reduced motion preference of the user, and switches to a cheaper mode on its own.
+     *
+     * @param animationMode the mode to use, or null to let the client choose
+     * @see #addAnimationModeListener(ComponentEventListener)
+     */
+    public void setAnimationMode(AnimationMode animationMode) {
+        this.forcedAnimationMode = animationMode;
+        if (animationMode == null) {
+            getElement().removeProperty("forcedAnimationMode");
+        } else {
+            getElement().setProperty("forcedAnimationMode", animationMode.name());
+        }
+    }
+
     /**
      * Sets a fixed size for the content in pixels
      */
@@ -255,6 +577,24 @@ public class SlideTab extends LitTemplate implements HasComponents, HasSize, Has
         return pixelSize;
     }
 
+    /**
+     * Sets if the user can resize the expanded panel by dragging its edge. The resized size is kept as the fixed
+     * content size.
+     *
+     * @see #addResizeListener(ComponentEventListener)
+     */
+    public void setResizable(boolean resizable) {
+        this.resizable = resizable;
+        setClassName("resizable", resizable);
+    }
+
+    /**
+     * Returns if the user can resize the expanded panel
+     */
+    public boolean isResizable() {
+        return resizable;
+    }
+
     /**
      * Defines the z-index of the panel, default 1
      */
@@ -294,14 +634,10 @@ public class SlideTab extends LitTemplate implements HasComponents, HasSize, Has
      * @param animated      should be animated or not
      */
     public void setExpanded(final boolean expanded, final boolean animated) {
-        if (this.expanded != expanded) {
-            setAnimationDuration(animated ? animationDuration : 0);
-
-            if (expanded) {
-                expand();
-            } else {
-                collapse();
-            }
+        if (expanded) {
+            expand(false, animated);
+        } else {
+            collapse(false, animated);
         }
     }
 
@@ -309,7 +645,40 @@ public class SlideTab extends LitTemplate implements HasComponents, HasSize, Has
      * Returns true if expanded or is expanding
      */
     public boolean isExpanded() {
-        return expanded;
+        return transition.getState().isExpanded();
+    }
+
+    /**
+     * Returns the state of the panel. Whether it is currently animating is only known if transition tracking is
+     * enabled, otherwise an animated change goes straight to {@link SlideState#EXPANDED} or
+     * {@link SlideState#COLLAPSED}.
+     *
+     * @see #setTransitionTrackingEnabled(boolean)
+     */
+    public SlideState getSlideState() {
+        return transition.getState();
+    }
+
+    /**
+     * Enables tracking animated expands and collapses until the transition has ended in the browser, so that
+     * {@link #getSlideState()} reports {@link SlideState#EXPANDING} and {@link SlideState#COLLAPSING}, and the
+     * expanded size measured by the browser is kept to render the panel again without measuring, e.g. after a
+     * refresh. Disabled by default, as every animated expand or collapse then costs an additional round trip.
+     */
+    public void setTransitionTrackingEnabled(boolean transitionTracking) {
+        this.transitionTracking = transitionTracking;
+        getElement().setProperty("transitionTrackingEnabled", transitionTracking);
+        if (!transitionTracking) {
+            // No acknowledgement will arrive for a running transition
+            transition.finish();
+        }
+    }
+
+    /**
+     * Returns whether or not animated expands and collapses are tracked until their transition has ended
+     */
+    public boolean isTransitionTrackingEnabled() {
+        return transitionTracking;
     }
 
     /**
@@ -321,7 +690,7 @@ public class SlideTab extends LitTemplate implements HasComponents, HasSize, Has
      * @param delayMillis millis in future the task will happen
      */
     public void scheduleExpand(final boolean value, final boolean animated, final int delayMillis) {
-        scheduleStrategy.schedule(new TabTask(() -> setExpanded(value, animated)), delayMillis);
+        schedule(new TabTask(() -> setExpanded(value, animated), value), delayMillis);
     }
 
     /**
@@ -331,7 +700,7 @@ public class SlideTab extends LitTemplate implements HasComponents, HasSize, Has
      * @param delayMillis millis in future the task will happen
      */
     public void scheduleToggle(final int delayMillis) {
-        scheduleStrategy.schedule(new TabTask(this::toggle), delayMillis);
+        schedule(new TabTask(this::toggle, null), delayMillis);
     }
 
     /**
@@ -341,7 +710,7 @@ public class SlideTab extends LitTemplate implements HasComponents, HasSize, Has
      * @param delayMillis millis in future the task will happen
      */
     public void scheduleCollapse(final int delayMillis) {
-        scheduleStrategy.schedule(new TabTask(this::collapse), delayMillis);
+        schedule(new TabTask(this::collapse, false), delayMillis);
     }
 
     /**
@@ -351,7 +720,147 @@ public class SlideTab extends LitTemplate implements HasComponents, HasSize, Has
      * @param delayMillis millis in future the task will happen
      */
     public void scheduleExpand(final int delayMillis) {
-        scheduleStrategy.schedule(new TabTask(this::expand), delayMillis);
+        schedule(new TabTask(this::expand, true), delayMillis);
+    }
+
+    private void schedule(TabTask tabTask, int delayMillis) {
+        // Recorded first, so cancelling the previous task does not clear it
+        pendingSchedule.set(new PendingSchedule(tabTask, System.currentTimeMillis() + delayMillis));
+        getScheduleStrategy().schedule(tabTask, delayMillis);
+    }
+
+    /**
+     * Forgets the pending schedule if it still is the one of the given task, which has run or been cancelled
+     */
+    private void clearPendingSchedule(TabTask tabTask) {
+        PendingSchedule pending = pendingSchedule.get();
+        if (pending != null && pending.task == tabTask) {
+            pendingSchedule.compareAndSet(pending, null);
+        }
+    }
+
+    /**
+     * Schedules a task that was pending when this tab was serialized, see {@link ScheduleStrategy#resumePending()}
+     */
+    private void resumeSchedule() {
+        if (scheduleStrategy != null) {
+            scheduleStrategy.resumePending();
+        }
+    }
+
+    /**
+     * Captures the state of the panel, to be restored with {@link #restore(SlideTabSnapshot)}, e.g. in a new
+     * instance after a refresh or when navigating back to a view
+     */
+    public SlideTabSnapshot snapshot() {
+        resumeSchedule();
+        long pendingDeadline = -1;
+        boolean pendingExpand = false;
+        PendingSchedule pending = pendingSchedule.get();
+        if (pending != null) {
+            pendingDeadline = pending.deadline;
+            // A scheduled toggle will turn into the opposite of the current state
+            pendingExpand = pending.task.expand != null ? pending.task.expand : !isExpanded();
+        }
+        return new SlideTabSnapshot(isExpanded(), pixelSize > 0 ? pixelSize : measuredSize, pendingDeadline,
+                pendingExpand);
+    }
+
+    /**
+     * Restores a state captured with {@link #snapshot()}. The state is rendered directly, without animation or toggle
+     * events, and nothing is sent to the client if the panel already is in that state. A pending schedule is
+     * scheduled again with the remaining delay, or applied directly if its deadline has passed.
+     */
+    public void restore(SlideTabSnapshot snapshot) {
+        boolean expand = snapshot.isExpanded();
+        if (snapshot.hasPendingSchedule()) {
+            long remaining = snapshot.getPendingDeadline() - System.currentTimeMillis();
+            if (remaining > 0) {
+                scheduleExpand(snapshot.isPendingExpand(), true, (int) remaining);
+            } else {
+                expand = snapshot.isPendingExpand();
+            }
+        }
+        if (pixelSize <= 0 && snapshot.getSize() > 0) {
+            measuredSize = snapshot.getSize();
+        }
+        if (transition.getState().isExpanded() == expand && !transition.getState().isTransitioning()) {
+            return;
+        }
+        transition.reset(expand);
+        if (isAttached()) {
+            if (expand) {
+                renderExpanded();
+            } else {
+                getElement().callJsFunction("collapse", slideMode.isVertical(), 0, false);
+            }
+        }
+    }
+
+    /**
+     * Returns the strategy used for scheduling. Unless set through the builder, a {@link ScheduleStrategy} provided
+     * by the application through Vaadin's {@link Lookup}, e.g. a Spring bean, is shared by all tabs. If there is
+     * none, each tab uses its own {@link DefaultScheduleStrategy}.
+     */
+    private ScheduleStrategy getScheduleStrategy() {
+        if (scheduleStrategy != null) {
+            return scheduleStrategy;
+        }
+        if (sharedScheduleStrategy == null) {
+            sharedScheduleStrategy = lookupSharedScheduleStrategy();
+            if (sharedScheduleStrategy == null) {
+                scheduleStrategy = new DefaultScheduleStrategy();
+                return scheduleStrategy;
+            }
+        }
+        return sharedScheduleStrategy;
+    }
+
+    private static ScheduleStrategy lookupSharedScheduleStrategy() {
+        VaadinService service = VaadinService.getCurrent();
+        if (service == null) {
+            return null;
+        }
+        // Look up only once per application, instead of once per tab
+        VaadinContext context = service.getContext();
+        return context.getAttribute(SharedScheduleStrategy.class, () -> {
+            Lookup lookup = context.getAttribute(Lookup.class);
+            return new SharedScheduleStrategy(lookup == null ? null : lookup.lookup(ScheduleStrategy.class));
+        }).strategy;
+    }
+
+    /**
+     * Sets the logical id of this tab for {@link SlideTabBroadcaster#broadcast(String, boolean)}. All attached tabs
+     * with the same id are expanded or collapsed together.
+     *
+     * @param broadcastId   the logical id, or null to stop receiving broadcasts
+     */
+    public void setBroadcastId(String broadcastId) {
+        unsubscribeBroadcasts();
+        this.broadcastId = broadcastId;
+        if (isAttached()) {
+            subscribeBroadcasts();
+        }
+    }
+
+    /**
+     * Returns the logical id of this tab for broadcasts, or null if not set
+     */
+    public String getBroadcastId() {
+        return broadcastId;
+    }
+
+    private void subscribeBroadcasts() {
+        if (broadcastId != null && broadcastSubscription == null) {
+            broadcastSubscription = SlideTabBroadcaster.subscribe(broadcastId, this);
+        }
+    }
+
+    private void unsubscribeBroadcasts() {
+        if (broadcastSubscription != null) {
+            broadcastSubscription.unsubscribe();
+            broadcastSubscription = null;
+        }
     }
 
     /**
@@ -361,6 +870,50 @@ public class SlideTab extends LitTemplate implements HasComponents, HasSize, Has
         return this.addListener(SlideToggleEvent.class, listener);
     }
 
+    /**
+     * Adds a listener that will be notified when the client has chosen an animation mode
+     */
+    public Registration addAnimationModeListener(ComponentEventListener<SlideAnimationModeEvent> listener) {
+        return this.addListener(SlideAnimationModeEvent.class, listener);
+    }
+
+    /**
+     * Adds a listener that will be notified when the user has resized the panel
+     */
+    public Registration addResizeListener(ComponentEventListener<SlideResizeEvent> listener) {
+        return this.addListener(SlideResizeEvent.class, listener);
+    }
+
+    /**
+     * Adds a listener that will be notified with the timings of each expand or collapse, once the transition has
+     * ended in the browser. Only fired while tracing is enabled.
+     *
+     * @see #setTracingEnabled(boolean)
+     */
+    public Registration addTraceListener(ComponentEventListener<SlideTraceEvent> listener) {
+        return this.addListener(SlideTraceEvent.class, listener);
+    }
+
+    /**
+     * Enables timing of expand and collapse from the click on the tab until the transition has ended.
+     * Disabled by default, as every traced toggle costs an additional round trip.
+     */
+    public void setTracingEnabled(boolean tracing) {
+        this.tracing = tracing;
+        getElement().setProperty("tracingEnabled", tracing);
+        if (!tracing) {
+            pendingTrace = null;
+            toggleStartedNanos = 0;
+        }
+    }
+
+    /**
+     * Returns whether or not expand and collapse are traced
+     */
+    public boolean isTracingEnabled() {
+        return tracing;
+    }
+
     /**
      *  If set, the panel can not be expanded or collapsed
      */
@@ -376,29 +929,178 @@ public class SlideTab extends LitTemplate implements HasComponents, HasSize, Has
     }
 
     /**
-     * A utility class for wrapping a command in a TimerTask and running it in the UI
+     * A utility class for wrapping a command in a TimerTask and running it in the UI.
+     * <p>
+     * Only the command is serialized, the timer state is not. A deserialized task is therefore a fresh, unscheduled
+     * task that can be scheduled again.
      */
-    public class TabTask extends TimerTask {
+    public class TabTask extends TimerTask implements Serializable {
 
         private final Command command;
+        // The state the command results in, null for a toggle
+        private final Boolean expand;
+        private transient volatile boolean done;
+        // Set while the task counts towards ScheduleMetrics.getPendingCount()
+        private transient volatile AtomicBoolean queued;
 
-        private TabTask(Command command) {
+        private TabTask(Command command, Boolean expand) {
             this.command = command;
+            this.expand = expand;
+        }
+
+        /**
+         * Returns the tab this task expands/collapses/toggles, for strategies shared by several tabs
+         */
+        public SlideTab getSlideTab() {
+            return SlideTab.this;
+        }
+
+        /**
+         * Returns true if the task has been scheduled on a {@link java.util.Timer}, and has neither run nor been
+         * cancelled
+         */
+        public boolean isPending() {
+            return !done && scheduledExecutionTime() > 0;
+        }
+
+        void enqueue() {
+            queued = new AtomicBoolean(true);
+            ScheduleMetrics.onQueued();
+        }
+
+        /**
+         * Stops counting the task as pending, only once even if it is both cancelled and run
+         */
+        void dequeue() {
+            AtomicBoolean wasQueued = queued;
+            if (wasQueued != null && wasQueued.compareAndSet(true, false)) {
+                ScheduleMetrics.onDequeued();
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            done = true;
+            clearPendingSchedule(this);
+            boolean cancelled = super.cancel();
+            dequeue();
+            ScheduleQuota.release(this);
+            return cancelled;
         }
 
         @Override
         public void run() {
-            getUI().ifPresent(ui -> ui.access(command));
+            done = true;
+            clearPendingSchedule(this);
+            dequeue();
+            ScheduleQuota.release(this);
+            long scheduledTime = scheduledExecutionTime();
+            if (scheduledTime > 0) {
+                // Only meaningful when run by a java.util.Timer
+                ScheduleMetrics.onFired(Math.max(0, System.currentTimeMillis() - scheduledTime));
+            }
+            try {
+                runInUI(command);
+            } catch (RuntimeException e) {
+                // An exception would cancel the timer shared by all tabs, e.g. if the UI has just been detached
+                LoggerFactory.getLogger(SlideTab.class).warn("Failed to run a scheduled command", e);
+            }
+        }
+    }
+
+    /**
+     * Runs a scheduled command in the UI, or defers it until the tab is visible again. Only the latest deferred
+     * command is kept, so several scheduled commands result in a single update once visible.
+     */
+    void runInUI(Command command) {
+        if (!clientVisible) {
+            deferredCommand.set(command);
+            // Visibility may have changed meanwhile, in which case nobody else will pick the command up
+            if (!clientVisible || (command = deferredCommand.getAndSet(null)) == null) {
+                return;
+            }
+        }
+        Command toRun = command;
+        getUI().ifPresent(ui -> ui.access(toRun));
+    }
+
+    /**
+     * Application wide result of looking up a shared {@link ScheduleStrategy}, the strategy may be null
+     */
+    private static class SharedScheduleStrategy {
+
+        private final ScheduleStrategy strategy;
+
+        private SharedScheduleStrategy(ScheduleStrategy strategy) {
+            this.strategy = strategy;
+        }
+    }
+
+    /**
+     * A scheduled task with the time it is due at
+     */
+    private static class PendingSchedule implements Serializable {
+
+        private final TabTask task;
+        private final long deadline;
+
+        private PendingSchedule(TabTask task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Server side timestamps of a traced expand or collapse, waiting for the client to report the transition end
+     */
+    private static class PendingTrace {
+
+        private final int id;
+        private final boolean expand;
+        private final long startedNanos;
+        private long commandQueuedNanos;
+        private long listenersDoneNanos;
+
+        private PendingTrace(int id, boolean expand, long startedNanos) {
+            this.id = id;
+            this.expand = expand;
+            this.startedNanos = startedNanos;
         }
     }
 
     @Override
     public void onAttach(AttachEvent attachEvent) {
+        resumeSchedule();
         // Ensures the component in the browser is in sync
-        if (expanded) {
-            doExpand();
+        // The client element is new, so render the state directly, and don't wait for a transition to end
+        transition.finish();
+        SlideState before = transition.getState();
+        // The new client element reports visibility changes from visible on, so run anything deferred until now
+        onVisibilityChanged(true);
+        // A deferred command that changed the state has already sent it to the client
+        if (transition.getState() == before && isExpanded()) {
+            renderExpanded();
+        }
+        subscribeBroadcasts();
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        unsubscribeBroadcasts();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        // Only subscribed while attached, which can not be told while deserializing
+        out.writeBoolean(broadcastSubscription != null);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // The subscription is not serialized, and a deserialized tab gets no attach event
+        if (in.readBoolean()) {
+            subscribeBroadcasts();
         }
-        setElementClosingOnOutsideClick();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,172 @@
+package com.lipisak.vaadin.slidetab;
+
+import com.vaadin.flow.component.UI;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Expands or collapses all attached {@link SlideTab}s sharing a broadcast id at once, e.g. the same panel shown on
+ * many screens.
+ * <p>
+ * Updates are run in the UIs of the tabs by a fixed number of threads, so no more than that many UIs are updated at a
+ * time. A UI that has not yet run its previous update only gets the latest one. The number of threads is read once from
+ * the system property slidetab.broadcasterThreads, and defaults to the number of processors.
+ * <p>
+ * A deserialized tab subscribes again on its own if it was subscribed when serialized. Subscriptions only hold their tabs weakly, so copies of a session
+ * that are deserialized but never used do not stay subscribed.
+ *
+ * @see SlideTab#setBroadcastId(String)
+ */
+public final class SlideTabBroadcaster {
+
+    private static final ConcurrentHashMap<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    private SlideTabBroadcaster() {
+    }
+
+    /**
+     * Expands or collapses, with animation, all tabs subscribed to the given id
+     *
+     * @param broadcastId   the logical id of the tabs
+     * @param expanded      true to expand
+     */
+    public static void broadcast(String broadcastId, boolean expanded) {
+        broadcast(broadcastId, expanded, true);
+    }
+
+    /**
+     * Expands or collapses all tabs subscribed to the given id
+     *
+     * @param broadcastId   the logical id of the tabs
+     * @param expanded      true to expand
+     * @param animated      should be animated or not
+     */
+    public static void broadcast(String broadcastId, boolean expanded, boolean animated) {
+        Set<Subscription> subscribers = subscriptions.get(broadcastId);
+        if (subscribers == null) {
+            return;
+        }
+        Update update = Update.of(expanded, animated);
+        for (Subscription subscription : subscribers) {
+            subscription.update(update);
+        }
+    }
+
+    /**
+     * Returns the number of tabs subscribed to the given id, including deserialized copies that have not been
+     * garbage collected yet
+     */
+    public static int getSubscriberCount(String broadcastId) {
+        Set<Subscription> subscribers = subscriptions.get(broadcastId);
+        return subscribers == null ? 0 : subscribers.size();
+    }
+
+    static Subscription subscribe(String broadcastId, SlideTab tab) {
+        Subscription subscription = new Subscription(broadcastId, tab);
+        subscriptions.computeIfAbsent(broadcastId, key -> ConcurrentHashMap.newKeySet()).add(subscription);
+        return subscription;
+    }
+
+    /**
+     * The target state of a broadcast, one shared instance per combination
+     */
+    private enum Update {
+        EXPAND(true, true), EXPAND_INSTANTLY(true, false), COLLAPSE(false, true), COLLAPSE_INSTANTLY(false, false);
+
+        private final boolean expanded;
+        private final boolean animated;
+
+        Update(boolean expanded, boolean animated) {
+            this.expanded = expanded;
+            this.animated = animated;
+        }
+
+        static Update of(boolean expanded, boolean animated) {
+            if (expanded) {
+                return animated ? EXPAND : EXPAND_INSTANTLY;
+            }
+            return animated ? COLLAPSE : COLLAPSE_INSTANTLY;
+        }
+    }
+
+    /**
+     * A tab subscribed to a broadcast id, updated through the UI it is attached to
+     */
+    static final class Subscription {
+
+        private final String broadcastId;
+        private final WeakReference<SlideTab> tab;
+        private final AtomicBoolean queued = new AtomicBoolean();
+        private volatile Update latest;
+
+        private Subscription(String broadcastId, SlideTab tab) {
+            this.broadcastId = broadcastId;
+            this.tab = new WeakReference<>(tab);
+        }
+
+        private void update(Update update) {
+            latest = update;
+            // If an update is already queued, it will pick up the latest one when it runs
+            if (queued.compareAndSet(false, true)) {
+                ExecutorHolder.INSTANCE.execute(this::access);
+            }
+        }
+
+        private void access() {
+            SlideTab slideTab = tab.get();
+            if (slideTab == null) {
+                unsubscribe();
+                return;
+            }
+            try {
+                Optional<UI> ui = slideTab.getUI();
+                if (ui.isPresent()) {
+                    ui.get().access(this::apply);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                // E.g. UIDetachedException, the tab unsubscribes once its detach has been handled
+                LoggerFactory.getLogger(SlideTabBroadcaster.class).debug("Failed to queue a broadcast", e);
+            }
+            // Nothing will run apply(), so a later broadcast has to queue an update again
+            queued.set(false);
+        }
+
+        private void apply() {
+            queued.set(false);
+            SlideTab slideTab = tab.get();
+            if (slideTab != null) {
+                Update update = latest;
+                slideTab.setExpanded(update.expanded, update.animated);
+            }
+        }
+
+        /**
+         * Stops receiving broadcasts, called when the tab is detached or has been garbage collected
+         */
+        void unsubscribe() {
+            subscriptions.computeIfPresent(broadcastId, (key, subscribers) -> {
+                subscribers.remove(this);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+    }
+
+    // Use a holder to defer initialization until ExecutorHolder.INSTANCE is accessed, in a thread-safe manner
+    private static class ExecutorHolder {
+        static final int THREADS = Math.max(1,
+                Integer.getInteger("slidetab.broadcasterThreads", Runtime.getRuntime().availableProcessors()));
+        static final ExecutorService INSTANCE = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "slide-tab-broadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -41,6 +41,12 @@ public class SlideTabBuilder {
 
     protected int zIndex = 1;
 
+    protected int idleCollapseDelay = 0;
+
+    protected boolean resizable = false;
+
+    protected int contentChunkSize = 0;
+
     protected ScheduleStrategy scheduleStrategy;
 
     /**
@@ -209,6 +215,46 @@ public class SlideTabBuilder {
         return this;
     }
 
+    /**
+     * collapses the expanded slider when there has been no pointer or keyboard activity inside it for the given time<br>
+     * the inactivity is tracked in the browser, the server is only contacted for the final collapse
+     *
+     * @param idleMillis inactivity in milliseconds, default <b>0</b> (disabled)
+     * @return builder
+     */
+    public SlideTabBuilder idleCollapse(final int idleMillis) {
+        this.idleCollapseDelay = idleMillis;
+        return this;
+    }
+
+    /**
+     * allows the user to resize the expanded slider by dragging the edge of its content<br>
+     * the new size is sent to the server once the drag has ended
+     *
+     * @param resizable default <b>false</b>
+     * @return builder
+     */
+    public SlideTabBuilder resizable(final boolean resizable) {
+        this.resizable = resizable;
+        return this;
+    }
+
+    /**
+     * attaches large content in chunks instead of all at once<br>
+     * only the first chunk of the children of the content is attached initially, the remaining children are
+     * attached in order, one chunk per idle period of the browser, once the slider has been expanded<br>
+     * only applies if the content implements {@link com.vaadin.flow.component.HasComponents}<br>
+     * the children beyond the first chunk are removed from the content until they are attached, so the content only
+     * returns the attached ones as its children. Children added to the content meanwhile stay after the deferred ones.
+     *
+     * @param chunkSize number of child components per chunk, default <b>0</b> (disabled)
+     * @return builder
+     */
+    public SlideTabBuilder chunkedContent(final int chunkSize) {
+        this.contentChunkSize = chunkSize;
+        return this;
+    }
+
     /**
      * z-Index of navigator, content and wrapper<br>
      * you can specify for multiple sliders which lays above another
@@ -223,7 +269,9 @@ public class SlideTabBuilder {
 
     /**
      * Can be overridden to gain more control over how collapse/expand commands are scheduled,
-     * for example what threads are used.
+     * for example what threads are used.<br>
+     * by default a strategy provided through Vaadin's Lookup (e.g. a Spring bean) is shared by all tabs,
+     * otherwise each tab uses its own {@link DefaultScheduleStrategy}
      */
     public SlideTabBuilder scheduleStrategy(ScheduleStrategy scheduleStrategy) {
         this.scheduleStrategy = scheduleStrategy;
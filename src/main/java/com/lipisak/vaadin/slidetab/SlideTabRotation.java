@@ -0,0 +1,188 @@
+package com.lipisak.vaadin.slidetab;
+
+import com.vaadin.flow.server.Command;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimerTask;
+
+/**
+ * Rotates through a group of {@link SlideTab}s at a fixed rate, expanding one tab and collapsing the previous one,
+ * e.g. for carousels and kiosk displays. A single tab is toggled instead.
+ * <p>
+ * The whole rotation is driven by one recurring task on the timer shared with {@link DefaultScheduleStrategy},
+ * scheduled at a fixed rate so it does not drift. Pausing cancels that task and resuming schedules a new one for the
+ * remainder of the interrupted period. The task is counted in {@link ScheduleMetrics}. It is not limited by the
+ * quotas, as a rotation only ever has one task however many tabs it has, and it does not go through the
+ * {@link ScheduleStrategy} of the tabs, which would replace it with the next schedule of the same tab.
+ * <p>
+ * A running rotation is paused when serialized, and has to be resumed after deserialization.
+ */
+public class SlideTabRotation implements Serializable {
+
+    private final List<SlideTab> tabs;
+
+    private int periodMillis;
+    private int index = -1;
+    private long remainingMillis = -1;
+    private transient RotationTask task;
+
+    /**
+     * Creates a rotation through the given tabs, in the given order
+     */
+    public SlideTabRotation(SlideTab... tabs) {
+        this(Arrays.asList(tabs));
+    }
+
+    /**
+     * Creates a rotation through the given tabs, in the given order
+     */
+    public SlideTabRotation(List<SlideTab> tabs) {
+        if (tabs.isEmpty()) {
+            throw new IllegalArgumentException("At least one tab is required");
+        }
+        this.tabs = new ArrayList<>(tabs);
+    }
+
+    /**
+     * Starts the rotation from the first tab, which is expanded immediately
+     *
+     * @param periodMillis  millis between expanding one tab and the next
+     */
+    public synchronized void start(int periodMillis) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("The period must be positive");
+        }
+        stop();
+        this.periodMillis = periodMillis;
+        index = -1;
+        schedule(0);
+    }
+
+    /**
+     * Pauses the rotation, keeping the time left until the next tab
+     */
+    public synchronized void pause() {
+        if (task != null) {
+            remainingMillis = Math.max(0, task.scheduledExecutionTime() + periodMillis - System.currentTimeMillis());
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Resumes a paused rotation, the next tab is expanded after the time that was left when pausing
+     */
+    public synchronized void resume() {
+        if (task == null && remainingMillis >= 0) {
+            schedule(remainingMillis);
+        }
+    }
+
+    /**
+     * Stops the rotation, leaving the tabs as they are
+     */
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        remainingMillis = -1;
+    }
+
+    /**
+     * Returns true if the rotation has been started and is not paused
+     */
+    public synchronized boolean isRunning() {
+        return task != null;
+    }
+
+    /**
+     * Returns true if the rotation has been paused and can be resumed
+     */
+    public synchronized boolean isPaused() {
+        return task == null && remainingMillis >= 0;
+    }
+
+    private void schedule(long delayMillis) {
+        remainingMillis = -1;
+        task = new RotationTask();
+        DefaultScheduleStrategy.TimerHolder.INSTANCE.scheduleAtFixedRate(task, delayMillis, periodMillis);
+        ScheduleMetrics.onScheduled();
+        ScheduleMetrics.onQueued();
+    }
+
+    private synchronized void rotate(RotationTask source) {
+        if (source != task) {
+            // Paused or stopped while this run was already due
+            return;
+        }
+        int previous = index;
+        index = (index + 1) % tabs.size();
+        SlideTab next = tabs.get(index);
+        if (tabs.size() == 1) {
+            runInUI(next, next::toggle);
+            return;
+        }
+        if (previous >= 0) {
+            SlideTab current = tabs.get(previous);
+            runInUI(current, current::collapse);
+        }
+        runInUI(next, next::expand);
+    }
+
+    /**
+     * Runs the command in the UI of the tab, so a tab that can not be updated, e.g. because its UI is being detached,
+     * neither stops the other tabs from rotating nor cancels the shared timer
+     */
+    private static void runInUI(SlideTab tab, Command command) {
+        try {
+            tab.runInUI(command);
+        } catch (RuntimeException e) {
+            LoggerFactory.getLogger(SlideTabRotation.class).warn("Failed to rotate a tab", e);
+        }
+    }
+
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        // The timer task is not serialized, so a running rotation is stored as paused
+        if (task != null) {
+            long remaining = Math.max(0, task.scheduledExecutionTime() + periodMillis - System.currentTimeMillis());
+            long running = remainingMillis;
+            remainingMillis = remaining;
+            out.defaultWriteObject();
+            remainingMillis = running;
+        } else {
+            out.defaultWriteObject();
+        }
+    }
+
+    private class RotationTask extends TimerTask {
+
+        @Override
+        public boolean cancel() {
+            // Only true the first time, as a recurring task stays scheduled until cancelled
+            boolean cancelled = super.cancel();
+            if (cancelled) {
+                DefaultScheduleStrategy.onCancelled();
+                ScheduleMetrics.onDequeued();
+            }
+            return cancelled;
+        }
+
+        @Override
+        public void run() {
+            ScheduleMetrics.onFired(Math.max(0, System.currentTimeMillis() - scheduledExecutionTime()));
+            try {
+                rotate(this);
+            } catch (RuntimeException e) {
+                // An exception would cancel the timer shared by all tabs
+                LoggerFactory.getLogger(SlideTabRotation.class).warn("Failed to rotate", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.lipisak.vaadin.slidetab;
+
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinRequestInterceptor;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinServiceInitListener;
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * Schedules the tasks that were pending when a session was serialized, at the end of the first request the
+ * deserialized session handles, so they fire even if no tab is used. Heartbeats are requests too, so an idle UI
+ * resumes its schedules within one heartbeat interval at the latest.
+ * <p>
+ * Registered through META-INF/services, there is nothing to configure.
+ *
+ * @see DefaultScheduleStrategy
+ */
+public class SlideTabServiceInitListener implements VaadinServiceInitListener {
+
+    @Override
+    public void serviceInit(ServiceInitEvent event) {
+        event.addVaadinRequestInterceptor(new ResumeInterceptor());
+    }
+
+    private static class ResumeInterceptor implements VaadinRequestInterceptor {
+
+        @Override
+        public void requestStart(VaadinRequest request, VaadinResponse response) {
+        }
+
+        @Override
+        public void handleException(VaadinRequest request, VaadinResponse response, VaadinSession session,
+                Exception exception) {
+        }
+
+        @Override
+        public void requestEnd(VaadinRequest request, VaadinResponse response, VaadinSession session) {
+            if (session != null) {
+                DefaultScheduleStrategy.resumeDeserialized(session);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.lipisak.vaadin.slidetab;
+
+import java.io.Serializable;
+
+/**
+ * The state of a {@link SlideTab} panel, captured with {@link SlideTab#snapshot()} and restored with
+ * {@link SlideTab#restore(SlideTabSnapshot)}, e.g. to keep a panel open over a refresh without rebuilding its content
+ * or animating it again.
+ */
+public final class SlideTabSnapshot implements Serializable {
+
+    private final boolean expanded;
+    private final int size;
+    private final long pendingDeadline;
+    private final boolean pendingExpand;
+
+    /**
+     * Creates a new snapshot
+     *
+     * @param expanded          true if the panel is expanded or expanding
+     * @param size              the fixed or last measured width/height (depending on the mode) in pixels, 0 if unknown
+     * @param pendingDeadline   time in epoch millis of a pending scheduled expand/collapse, -1 if there is none
+     * @param pendingExpand     true if the pending schedule expands the panel
+     */
+    public SlideTabSnapshot(boolean expanded, int size, long pendingDeadline, boolean pendingExpand) {
+        this.expanded = expanded;
+        this.size = size;
+        this.pendingDeadline = pendingDeadline;
+        this.pendingExpand = pendingExpand;
+    }
+
+    /**
+     * Returns true if the panel is expanded or expanding
+     */
+    public boolean isExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Returns the fixed or last measured width/height (depending on the mode) in pixels, 0 if unknown
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns true if an expand/collapse was scheduled when the snapshot was taken
+     */
+    public boolean hasPendingSchedule() {
+        return pendingDeadline >= 0;
+    }
+
+    /**
+     * Returns the time in epoch millis of the pending scheduled expand/collapse, -1 if there is none
+     */
+    public long getPendingDeadline() {
+        return pendingDeadline;
+    }
+
+    /**
+     * Returns true if the pending schedule expands the panel
+     */
+    public boolean isPendingExpand() {
+        return pendingExpand;
+    }
+}
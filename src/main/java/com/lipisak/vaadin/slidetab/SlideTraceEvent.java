@@ -0,0 +1,92 @@
+package com.lipisak.vaadin.slidetab;
+
+import com.vaadin.flow.component.ComponentEvent;
+
+/**
+ * Timings of a single expand or collapse, from the click on the tab until the transition has ended in the browser.
+ * <p>
+ * Client timings are measured with the browser clock and server timings with the server clock, so only the
+ * durations within each side are comparable.
+ *
+ * @see SlideTab#setTracingEnabled(boolean)
+ */
+public class SlideTraceEvent extends ComponentEvent<SlideTab> {
+
+    private final boolean expand;
+    private final long serverProcessingNanos;
+    private final long listenerNanos;
+    private final double clickToDispatchMillis;
+    private final double dispatchToCommandMillis;
+    private final double commandToTransitionEndMillis;
+
+    /**
+     * Creates a new event for a traced expand or collapse.
+     *
+     * @param source                        the source component
+     * @param expand                        true if the panel was expanded
+     * @param serverProcessingNanos         time on the server from the toggle until the command was queued
+     * @param listenerNanos                 time spent in the toggle listeners
+     * @param clickToDispatchMillis         time from the click until the toggle was sent, -1 if not clicked
+     * @param dispatchToCommandMillis       time from sending the toggle until the command was invoked, -1 if not
+     *                                      clicked
+     * @param commandToTransitionEndMillis  time from the command being invoked until the transition ended
+     */
+    public SlideTraceEvent(SlideTab source, boolean expand, long serverProcessingNanos, long listenerNanos,
+                           double clickToDispatchMillis, double dispatchToCommandMillis,
+                           double commandToTransitionEndMillis) {
+        super(source, true);
+        this.expand = expand;
+        this.serverProcessingNanos = serverProcessingNanos;
+        this.listenerNanos = listenerNanos;
+        this.clickToDispatchMillis = clickToDispatchMillis;
+        this.dispatchToCommandMillis = dispatchToCommandMillis;
+        this.commandToTransitionEndMillis = commandToTransitionEndMillis;
+    }
+
+    @Override
+    public SlideTab getSource() {
+        return super.getSource();
+    }
+
+    public boolean isExpand() {
+        return expand;
+    }
+
+    /**
+     * Returns the time on the server from receiving the toggle until the client command was queued
+     */
+    public long getServerProcessingNanos() {
+        return serverProcessingNanos;
+    }
+
+    /**
+     * Returns the time spent in the toggle listeners, a large value points to slow listeners
+     */
+    public long getListenerNanos() {
+        return listenerNanos;
+    }
+
+    /**
+     * Returns the time from the click on the tab until the toggle was sent to the server,
+     * or -1 if the expand or collapse was not triggered by a click
+     */
+    public double getClickToDispatchMillis() {
+        return clickToDispatchMillis;
+    }
+
+    /**
+     * Returns the time from sending the toggle until the client received the expand or collapse command,
+     * or -1 if the expand or collapse was not triggered by a click. Includes network time, waiting for the session
+     * lock and the server processing.
+     */
+    public double getDispatchToCommandMillis() {
+        return dispatchToCommandMillis;
+    }
+
+    /**
+     * Returns the time from the client receiving the expand or collapse command until the transition ended
+     */
+    public double getCommandToTransitionEndMillis() {
+        return commandToTransitionEndMillis;
+    }
+}
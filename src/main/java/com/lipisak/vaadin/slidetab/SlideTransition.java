@@ -0,0 +1,79 @@
+package com.lipisak.vaadin.slidetab;
+
+import java.io.Serializable;
+
+/**
+ * Keeps track of the {@link SlideState} of a {@link SlideTab}, and decides whether an expand or collapse has to be
+ * sent to the client at all. Animated transitions stay in {@link SlideState#EXPANDING} or
+ * {@link SlideState#COLLAPSING} until the client acknowledges that the transition has ended.
+ * <p>
+ * Has no dependencies on Vaadin, and does not allocate.
+ */
+final class SlideTransition implements Serializable {
+
+    private SlideState state = SlideState.COLLAPSED;
+
+    SlideState getState() {
+        return state;
+    }
+
+    /**
+     * Requests the panel to be expanded or collapsed
+     *
+     * @param expand    true to expand
+     * @param animated  true if the client animates the change
+     * @return true if the state changed and the command has to be sent to the client, false if the panel already is
+     * or is becoming the requested state
+     */
+    boolean request(boolean expand, boolean animated) {
+        if (state.isExpanded() == expand) {
+            return false;
+        }
+        if (expand) {
+            state = animated ? SlideState.EXPANDING : SlideState.EXPANDED;
+        } else {
+            state = animated ? SlideState.COLLAPSING : SlideState.COLLAPSED;
+        }
+        return true;
+    }
+
+    /**
+     * Acknowledges that the client has finished a transition. Acknowledgements of a transition that has since been
+     * reversed are ignored.
+     *
+     * @param expanded  true if the finished transition was an expand
+     * @return true if the state changed
+     */
+    boolean acknowledge(boolean expanded) {
+        if (expanded && state == SlideState.EXPANDING) {
+            state = SlideState.EXPANDED;
+            return true;
+        }
+        if (!expanded && state == SlideState.COLLAPSING) {
+            state = SlideState.COLLAPSED;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sets the final state directly, e.g. when restoring a snapshot
+     *
+     * @param expanded  true for expanded
+     */
+    void reset(boolean expanded) {
+        state = expanded ? SlideState.EXPANDED : SlideState.COLLAPSED;
+    }
+
+    /**
+     * Completes a running transition without waiting for the client, e.g. when the client element has been
+     * recreated and the state is rendered directly
+     */
+    void finish() {
+        if (state == SlideState.EXPANDING) {
+            state = SlideState.EXPANDED;
+        } else if (state == SlideState.COLLAPSING) {
+            state = SlideState.COLLAPSED;
+        }
+    }
+}
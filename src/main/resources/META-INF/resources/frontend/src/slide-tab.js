@@ -3,6 +3,14 @@ import { html, LitElement, css } from "lit";
 import { ThemableMixin } from "@vaadin/vaadin-themable-mixin/vaadin-themable-mixin.js";
 import "@vaadin/icons";
 
+// Activity inside the panel that postpones the idle collapse
+const IDLE_ACTIVITY_EVENTS = ["pointerdown", "pointermove", "keydown", "wheel", "focusin"];
+// Time to wait after a drag resize has ended before sending the size to the server
+const RESIZE_SYNC_DELAY = 300;
+// Average frame times during the first animation above which a cheaper animation mode is chosen
+const REDUCED_ANIMATION_FRAME_TIME = 25;
+const INSTANT_ANIMATION_FRAME_TIME = 50;
+
 class SlideTab extends ThemableMixin(LitElement) {
 
   static get styles() {
@@ -114,6 +122,47 @@ class SlideTab extends ThemableMixin(LitElement) {
           position: relative;
           overflow: hidden;
         }
+        #resize-handle {
+          display: none;
+          position: absolute;
+          z-index: 1;
+          touch-action: none;
+        }
+        :host(.resizable.expanded) #resize-handle {
+          display: block;
+        }
+        :host(.top) #resize-handle,
+        :host(.bottom) #resize-handle {
+          left: 0;
+          right: 0;
+          height: var(--lumo-space-s, 8px);
+          cursor: ns-resize;
+        }
+        :host(.left) #resize-handle,
+        :host(.right) #resize-handle {
+          top: 0;
+          bottom: 0;
+          width: var(--lumo-space-s, 8px);
+          cursor: ew-resize;
+        }
+        :host(.top) #resize-handle {
+          bottom: 0;
+        }
+        :host(.bottom) #resize-handle {
+          top: 0;
+        }
+        :host(.left) #resize-handle {
+          right: 0;
+        }
+        :host(.right) #resize-handle {
+          left: 0;
+        }
+        :host(.animation-reduced) #content {
+          transition-duration: var(--slide-tab-reduced-animation-duration, 100ms) !important;
+        }
+        :host(.animation-instant) #content {
+          transition: none !important;
+        }
         #content ::slotted(*) {
           display: inline-block;
           padding: var(--lumo-space-m);
@@ -150,6 +199,12 @@ class SlideTab extends ThemableMixin(LitElement) {
     return "slide-tab";
   }
 
+  static get properties() {
+    return {
+      forcedAnimationMode: { type: String },
+    };
+  }
+
   render() {
     return html` 
       <div part="tab" id="tab" @click="${this.toggle}">
@@ -167,6 +222,7 @@ class SlideTab extends ThemableMixin(LitElement) {
         </div>
       </div>
       <div part="content" id="content">
+        <div part="resize-handle" id="resize-handle" @pointerdown="${this._onResizeStart}"></div>
         <slot></slot>
       </div>
     `;
@@ -175,44 +231,336 @@ class SlideTab extends ThemableMixin(LitElement) {
   constructor() {
     super();
     this.outsideClickListener = this._onOutsideClick.bind(this);
+    this.idleActivityListener = this._onIdleActivity.bind(this);
+    this.visibilityListener = this._reportVisibility.bind(this);
+    // The server assumes the tab to be visible until told otherwise
+    this._reportedVisible = true;
+    this._intersecting = true;
+    // Incremented by every expand/collapse, so listeners of a superseded transition can tell they are stale
+    this._transitionGeneration = 0;
   }
 
   toggle(event) {
-    this.$server.toggle();
+    if (!this.tracingEnabled) {
+      this.$server.toggle();
+      return;
+    }
+    const clickTrace = { clickTime: event.timeStamp, dispatchTime: performance.now() };
+    this._clickTrace = clickTrace;
+    // Resolves after the response has been handled, so a toggle that did not result in a command
+    // must not leave its click behind for a later, unrelated expand/collapse
+    this.$server.toggle().then(() => {
+      if (this._clickTrace === clickTrace) {
+        this._clickTrace = null;
+      }
+    });
   }
 
-  async expand(size, vertical) {
+  /**
+   * Returns and clears the click that led to the current command, if any
+   *
+   * @private
+   */
+  _takeClickTrace() {
+    const click = this._clickTrace;
+    this._clickTrace = null;
+    return click;
+  }
+
+  async expand(size, vertical, traceId, animated) {
+    const commandTime = performance.now();
+    const click = this._takeClickTrace();
     await this.updateComplete;
     let content = this.renderRoot.querySelector("#content");
     if (content == null) return; //Content not yet rendered! Skip this turn
+    this._checkReducedMotion();
 
     // Calculate the size if size is negative or zero
-    if (size <= 0) {
-      size = vertical ? content.scrollHeight : content.scrollWidth;
-      size = Math.min(size, this._getMaxSize(vertical));
-    }
-    if (vertical) {
-      content.style.height = size + "px";
-    } else {
-      content.style.width = size + "px";
+    this._autoSize = size <= 0;
+    if (this._autoSize) {
+      size = this._measureSize(content, vertical);
     }
+    const generation = ++this._transitionGeneration;
+    this._setSize(content, vertical, size + "px", animated);
 
     this.classList.toggle("expanded", true);
     document.body.addEventListener("click", this.outsideClickListener);
+    this._startIdleTimer();
+    this._loadPendingChunks(content, vertical);
+    this._measureAnimation(content, animated, generation);
+    this._afterTransition(content, vertical, true, animated, traceId, commandTime, click, generation);
   }
 
-  async collapse(vertical) {
+  async collapse(vertical, traceId, animated) {
+    const commandTime = performance.now();
+    const click = this._takeClickTrace();
     await this.updateComplete;
-    if (vertical) {
-      this.renderRoot.querySelector("#content").style.height = "0";
-    } else {
-      this.renderRoot.querySelector("#content").style.width = "0";
-    }
+    let content = this.renderRoot.querySelector("#content");
+    this._checkReducedMotion();
+    const generation = ++this._transitionGeneration;
+    this._setSize(content, vertical, "0", animated);
 
     this.classList.toggle("expanded", false);
     document.body.removeEventListener("click", this.outsideClickListener);
+    this._stopIdleTimer();
+    this._measureAnimation(content, animated, generation);
+    this._afterTransition(content, vertical, false, animated, traceId, commandTime, click, generation);
+  }
+
+  /**
+   * Measures the frame times during the first animation, and switches to a cheaper animation mode if the
+   * client can not keep up. Does nothing once a mode has been chosen, or if the server forces a mode.
+   *
+   * @private
+   */
+  _measureAnimation(content, animated, generation) {
+    if (!animated || this._animationMode || this.forcedAnimationMode || this._measuringAnimation) return;
+    this._measuringAnimation = true;
+
+    const frameTimes = [];
+    let last = performance.now();
+    const sample = (time) => {
+      frameTimes.push(time - last);
+      last = time;
+      frame = requestAnimationFrame(sample);
+    };
+    let frame = requestAnimationFrame(sample);
+
+    // Frame times stay valid if the transition is reversed midway, so the measurement is evaluated either way
+    this._whenTransitionEnds(content, generation, () => {
+      cancelAnimationFrame(frame);
+      this._measuringAnimation = false;
+      if (frameTimes.length < 2) return; // Too short to tell, try again with the next animation
+
+      const average = frameTimes.reduce((sum, time) => sum + time, 0) / frameTimes.length;
+      if (average > INSTANT_ANIMATION_FRAME_TIME) {
+        this._setAnimationMode("INSTANT");
+      } else if (average > REDUCED_ANIMATION_FRAME_TIME) {
+        this._setAnimationMode("REDUCED");
+      } else {
+        this._setAnimationMode("FULL");
+      }
+    });
+  }
+
+  /**
+   * Skips animations altogether if the user has asked for reduced motion
+   *
+   * @private
+   */
+  _checkReducedMotion() {
+    if (!this._animationMode && window.matchMedia("(prefers-reduced-motion: reduce)").matches) {
+      this._setAnimationMode("INSTANT");
+    }
   }
 
+  /**
+   * Sets the automatically chosen animation mode and reports it to the server
+   *
+   * @private
+   */
+  _setAnimationMode(mode) {
+    this._animationMode = mode;
+    this._applyAnimationMode();
+    this.$server.onAnimationModeChanged(mode);
+  }
+
+  _applyAnimationMode() {
+    const mode = this.forcedAnimationMode || this._animationMode || "FULL";
+    this.classList.toggle("animation-reduced", mode === "REDUCED");
+    this.classList.toggle("animation-instant", mode === "INSTANT");
+  }
+
+  updated(changedProperties) {
+    super.updated(changedProperties);
+    if (changedProperties.has("forcedAnimationMode")) {
+      this._applyAnimationMode();
+    }
+  }
+
+  _measureSize(content, vertical) {
+    const size = vertical ? content.scrollHeight : content.scrollWidth;
+    return Math.min(size, this._getMaxSize(vertical));
+  }
+
+  /**
+   * Asks the server for the remaining chunks of the content one at a time, whenever the browser is idle,
+   * for as long as the panel stays expanded.
+   *
+   * @private
+   */
+  _loadPendingChunks(content, vertical) {
+    if (!this.hasPendingChunks || this._loadingChunks) return;
+    this._loadingChunks = true;
+
+    const whenIdle = window.requestIdleCallback || ((callback) => setTimeout(callback, 16));
+    const loadNext = () =>
+      whenIdle(() => {
+        if (!this.classList.contains("expanded")) {
+          this._loadingChunks = false;
+          return;
+        }
+        this.$server.loadNextChunk().then(
+          (more) => {
+            if (this._autoSize && this.classList.contains("expanded")) {
+              content.style[vertical ? "height" : "width"] = this._measureSize(content, vertical) + "px";
+            }
+            if (more) {
+              loadNext();
+            } else {
+              this._loadingChunks = false;
+            }
+          },
+          () => (this._loadingChunks = false)
+        );
+      });
+    loadNext();
+  }
+
+  /**
+   * Sets the height or width of the content, skipping the transition if not animated
+   *
+   * @private
+   */
+  _setSize(content, vertical, size, animated) {
+    const transition = content.style.transition;
+    if (!animated) {
+      content.style.transition = "none";
+    }
+    content.style[vertical ? "height" : "width"] = size;
+    if (!animated) {
+      // Force a style recalculation so the size is applied before the transition is restored
+      content.getBoundingClientRect();
+      content.style.transition = transition;
+    }
+  }
+
+  /**
+   * Acknowledges the end of an animated expand/collapse to the server if transition tracking is enabled, and
+   * reports the client side timings of a traced one. Nothing is reported for a transition that has been
+   * superseded by a later expand/collapse.
+   *
+   * @param content       The content element being transitioned
+   * @param vertical      True if the slide opens in a vertical direction
+   * @param expanded      True for an expand
+   * @param animated      True if the change is animated, otherwise it has already been applied
+   * @param traceId       Id of the trace, 0 if the command is not traced
+   * @param commandTime   Time at which the command was invoked
+   * @param click         The click that led to the command, null if not clicked
+   * @param generation    Generation of the transition, see _whenTransitionEnds
+   * @private
+   */
+  _afterTransition(content, vertical, expanded, animated, traceId, commandTime, click, generation) {
+    const acknowledge = animated && this.transitionTrackingEnabled;
+    if (!acknowledge && !traceId) return;
+
+    const done = (current) => {
+      if (!current) return;
+      if (acknowledge) {
+        // The expanded size lets the server restore the panel later without measuring it again
+        const size = expanded ? (vertical ? content.offsetHeight : content.offsetWidth) : 0;
+        this.$server.onTransitionEnd(expanded, size);
+      }
+      if (traceId) {
+        const clickToDispatch = click ? click.dispatchTime - click.clickTime : -1;
+        const dispatchToCommand = click ? commandTime - click.dispatchTime : -1;
+        this.$server.onTraceCompleted(traceId, clickToDispatch, dispatchToCommand, performance.now() - commandTime);
+      }
+    };
+    if (animated) {
+      this._whenTransitionEnds(content, generation, done);
+    } else {
+      done(true);
+    }
+  }
+
+  /**
+   * Calls the callback once, when the transition started by the expand/collapse of the given generation has
+   * ended, with false if a later expand/collapse has superseded it meanwhile. Falls back to a timeout, as no
+   * transition events are fired when there is no duration or the size did not change.
+   *
+   * Reversing a running transition cancels it, but that transitioncancel is only dispatched once the listener
+   * of the new transition has been added. Cancel events are therefore ignored, and a transition that really
+   * is cancelled, e.g. by hiding the element, is left to the fallback.
+   *
+   * @private
+   */
+  _whenTransitionEnds(element, generation, callback) {
+    const duration = parseFloat(getComputedStyle(element).transitionDuration) || 0;
+    let done = false;
+    const finish = () => {
+      if (done) return;
+      done = true;
+      element.removeEventListener("transitionend", onEnd);
+      element.removeEventListener("transitioncancel", onEnd);
+      clearTimeout(fallback);
+      callback(generation === this._transitionGeneration);
+    };
+    const onEnd = (event) => {
+      if (event.target !== element) return;
+      if (generation !== this._transitionGeneration || event.type === "transitionend") finish();
+    };
+    element.addEventListener("transitionend", onEnd);
+    element.addEventListener("transitioncancel", onEnd);
+    const fallback = setTimeout(finish, duration * 1000 + 50);
+  }
+
+
+  /**
+   * Starts resizing the content by dragging the handle. The size is only written once per animation frame,
+   * and sent to the server once, debounced, when the drag has ended.
+   *
+   * @private
+   */
+  _onResizeStart(event) {
+    if (event.button !== 0) return;
+    event.preventDefault();
+
+    const handle = event.currentTarget;
+    const content = this.renderRoot.querySelector("#content");
+    const vertical = this.classList.contains("top") || this.classList.contains("bottom");
+    // The panel grows towards the bottom/right for top/left slides, and the other way around otherwise
+    const direction = this.classList.contains("top") || this.classList.contains("left") ? 1 : -1;
+    const startPosition = vertical ? event.clientY : event.clientX;
+    const startSize = vertical ? content.offsetHeight : content.offsetWidth;
+    const maxSize = this._getMaxSize(vertical);
+    const transition = content.style.transition;
+
+    let size = startSize;
+    let frame = null;
+    const render = () => {
+      frame = null;
+      content.style[vertical ? "height" : "width"] = size + "px";
+    };
+    const onMove = (moveEvent) => {
+      const position = vertical ? moveEvent.clientY : moveEvent.clientX;
+      size = Math.round(Math.max(1, Math.min(maxSize, startSize + direction * (position - startPosition))));
+      if (frame == null) {
+        frame = requestAnimationFrame(render);
+      }
+    };
+    const onEnd = () => {
+      handle.removeEventListener("pointermove", onMove);
+      handle.removeEventListener("pointerup", onEnd);
+      handle.removeEventListener("pointercancel", onEnd);
+      if (frame != null) {
+        cancelAnimationFrame(frame);
+        render();
+      }
+      content.style.transition = transition;
+      this._resizeSyncTimeout = setTimeout(() => this.$server.onResized(size), RESIZE_SYNC_DELAY);
+    };
+
+    clearTimeout(this._resizeSyncTimeout);
+    // The user picks the size from now on, chunks loaded later must not measure the panel again
+    this._autoSize = false;
+    // Follow the pointer directly instead of animating every change
+    content.style.transition = "none";
+    handle.setPointerCapture(event.pointerId);
+    handle.addEventListener("pointermove", onMove);
+    handle.addEventListener("pointerup", onEnd);
+    handle.addEventListener("pointercancel", onEnd);
+  }
 
   _onOutsideClick(event) {
     if (this.isClosingOnOutsideClickEnabled && !this._isChildElement(event.target)) {
@@ -220,6 +568,58 @@ class SlideTab extends ThemableMixin(LitElement) {
     }
   }
 
+  /**
+   * Starts tracking activity inside the panel, and asks the server to collapse it once there has been
+   * no activity for idleCollapseDelay milliseconds. Does nothing if the idle collapse is disabled.
+   *
+   * @private
+   */
+  _startIdleTimer() {
+    this._stopIdleTimer();
+    if (!(this.idleCollapseDelay > 0)) return;
+
+    this._lastActivity = performance.now();
+    IDLE_ACTIVITY_EVENTS.forEach((type) =>
+      this.addEventListener(type, this.idleActivityListener, { passive: true })
+    );
+    this._idleTimeout = setTimeout(() => this._checkIdle(), this.idleCollapseDelay);
+  }
+
+  _stopIdleTimer() {
+    clearTimeout(this._idleTimeout);
+    this._idleTimeout = null;
+    IDLE_ACTIVITY_EVENTS.forEach((type) => this.removeEventListener(type, this.idleActivityListener));
+  }
+
+  _onIdleActivity() {
+    // Only record the time, the timer is re-armed for the remainder when it fires
+    this._lastActivity = performance.now();
+  }
+
+  _checkIdle() {
+    const remaining = this.idleCollapseDelay - (performance.now() - this._lastActivity);
+    if (remaining > 0) {
+      this._idleTimeout = setTimeout(() => this._checkIdle(), remaining);
+      return;
+    }
+    this._stopIdleTimer();
+    this.$server.onIdleTimeout();
+  }
+
+  /**
+   * Tells the server when the tab becomes hidden or visible, so scheduled updates are not pushed to a tab nobody
+   * sees. Only changes are reported.
+   *
+   * @private
+   */
+  _reportVisibility() {
+    const visible = document.visibilityState === "visible" && this._intersecting;
+    if (visible !== this._reportedVisible) {
+      this._reportedVisible = visible;
+      this.$server.onVisibilityChanged(visible);
+    }
+  }
+
   _isChildElement(element) {
     while (element != null) {
       if (element == this) {
@@ -249,14 +649,29 @@ class SlideTab extends ThemableMixin(LitElement) {
 
   connectedCallback() {
     super.connectedCallback();
+    document.addEventListener("visibilitychange", this.visibilityListener);
+    if (window.IntersectionObserver) {
+      this._intersectionObserver = new IntersectionObserver((entries) => {
+        this._intersecting = entries[entries.length - 1].isIntersecting;
+        this._reportVisibility();
+      });
+      this._intersectionObserver.observe(this);
+    }
     if (this.classList.contains("expanded")) {
       document.body.addEventListener("click", this.outsideClickListener);
+      this._startIdleTimer();
     }
   }
 
   disconnectedCallback() {
     super.disconnectedCallback();
+    document.removeEventListener("visibilitychange", this.visibilityListener);
+    if (this._intersectionObserver) {
+      this._intersectionObserver.disconnect();
+      this._intersectionObserver = null;
+    }
     document.body.removeEventListener("click", this.outsideClickListener);
+    this._stopIdleTimer();
   }
 
   setClosingOnOutsideClick(enabled) {
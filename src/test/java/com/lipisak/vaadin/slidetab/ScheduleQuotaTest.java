@@ -0,0 +1,103 @@
+package com.lipisak.vaadin.slidetab;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.testbench.unit.UIUnit4Test;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ScheduleQuotaTest extends UIUnit4Test {
+
+    private final List<SlideTab.TabTask> tasks = new ArrayList<>();
+    private SlideTab tab;
+
+    @Before
+    public void setUp() {
+        // Only collects the tasks, so the test decides how they are scheduled
+        tab = new SlideTabBuilder(new Div()).scheduleStrategy((tabTask, delayMillis) -> tasks.add(tabTask)).build();
+        UI.getCurrent().add(tab);
+    }
+
+    @After
+    public void tearDown() {
+        tasks.forEach(DefaultScheduleStrategy::cancel);
+        DefaultScheduleStrategy.setQuota(0, 0, DefaultScheduleStrategy.OverflowPolicy.REJECT);
+    }
+
+    @Test
+    public void taskRejectedByTimerDoesNotHoldSlot() {
+        DefaultScheduleStrategy.setQuota(0, 2, DefaultScheduleStrategy.OverflowPolicy.REJECT);
+        tab.scheduleCollapse(60_000);
+        tab.scheduleExpand(60_000);
+        SlideTab.TabTask first = tasks.get(0);
+        SlideTab.TabTask second = tasks.get(1);
+
+        ScheduleQuota.schedule(first, 60_000);
+        Assert.assertThrows(IllegalStateException.class, () -> ScheduleQuota.schedule(first, 60_000));
+        ScheduleQuota.schedule(second, 60_000);
+
+        Assert.assertTrue(second.isPending());
+    }
+
+    @Test
+    public void releasedSlotIsReused() {
+        DefaultScheduleStrategy.setQuota(0, 1, DefaultScheduleStrategy.OverflowPolicy.REJECT);
+        tab.scheduleCollapse(60_000);
+        tab.scheduleExpand(60_000);
+        SlideTab.TabTask first = tasks.get(0);
+        SlideTab.TabTask second = tasks.get(1);
+
+        ScheduleQuota.schedule(first, 60_000);
+        ScheduleQuota.schedule(second, 60_000);
+        Assert.assertFalse("Over the quota", second.isPending());
+
+        DefaultScheduleStrategy.cancel(first);
+        tab.scheduleToggle(60_000);
+        SlideTab.TabTask third = tasks.get(2);
+        ScheduleQuota.schedule(third, 60_000);
+        Assert.assertTrue(third.isPending());
+    }
+
+    @Test
+    public void waitingTaskIsScheduledOnceSlotIsFree() {
+        DefaultScheduleStrategy.setQuota(0, 1, DefaultScheduleStrategy.OverflowPolicy.COALESCE);
+        tab.scheduleCollapse(60_000);
+        tab.scheduleExpand(60_000);
+        tab.scheduleToggle(60_000);
+        SlideTab.TabTask first = tasks.get(0);
+        SlideTab.TabTask second = tasks.get(1);
+        SlideTab.TabTask third = tasks.get(2);
+
+        ScheduleQuota.schedule(first, 60_000);
+        ScheduleQuota.schedule(second, 60_000);
+        ScheduleQuota.schedule(third, 60_000);
+        Assert.assertFalse("Waiting", second.isPending());
+        Assert.assertFalse("Waiting", third.isPending());
+
+        // A waiting task that is cancelled never gets the slot
+        DefaultScheduleStrategy.cancel(second);
+        DefaultScheduleStrategy.cancel(first);
+
+        Assert.assertFalse(second.isPending());
+        Assert.assertTrue(third.isPending());
+    }
+
+    @Test
+    public void pendingCountFollowsTimer() {
+        long pending = ScheduleMetrics.getPendingCount();
+        tab.scheduleCollapse(60_000);
+        SlideTab.TabTask task = tasks.get(0);
+
+        ScheduleQuota.schedule(task, 60_000);
+        Assert.assertEquals(pending + 1, ScheduleMetrics.getPendingCount());
+
+        DefaultScheduleStrategy.cancel(task);
+        DefaultScheduleStrategy.cancel(task);
+        Assert.assertEquals(pending, ScheduleMetrics.getPendingCount());
+    }
+}
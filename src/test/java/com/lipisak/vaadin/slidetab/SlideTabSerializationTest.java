@@ -0,0 +1,134 @@
+package com.lipisak.vaadin.slidetab;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.testbench.unit.UIUnit4Test;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+public class SlideTabSerializationTest extends UIUnit4Test {
+
+    @Test
+    public void pendingScheduleAddsLittleToSerializedSize() throws Exception {
+        SlideTab idle = new SlideTabBuilder(new Div()).build();
+        SlideTab scheduled = new SlideTabBuilder(new Div()).build();
+        scheduled.scheduleCollapse(60_000);
+
+        int idleSize = serialize(idle).length;
+        int scheduledSize = serialize(scheduled).length;
+        // A copy holds the task unscheduled, and is written again in the same form
+        int copySize = serialize(deserialize(serialize(scheduled))).length;
+        String sizes = "idle " + idleSize + " bytes, scheduled " + scheduledSize + " bytes, copy " + copySize + " bytes";
+        System.out.println("Serialized SlideTab: " + sizes);
+
+        // Only the command and its deadline, no timer state
+        Assert.assertTrue(sizes, scheduledSize - idleSize < 1024);
+        Assert.assertEquals(sizes, scheduledSize, copySize);
+    }
+
+    @Test
+    public void deserializedScheduleFiresAfterFirstRequest() throws Exception {
+        SlideTab tab = new SlideTabBuilder(new Div()).build();
+        tab.scheduleCollapse(50);
+        byte[] bytes = serialize(tab);
+        tab.scheduleCollapse(60_000);
+
+        long fired = ScheduleMetrics.getFiredCount();
+        deserialize(bytes);
+        Thread.sleep(200);
+        Assert.assertEquals("Not armed while deserializing", fired, ScheduleMetrics.getFiredCount());
+
+        // The session handles a request, nothing touches the copy
+        VaadinSession session = VaadinSession.getCurrent();
+        ServiceInitEvent event = new ServiceInitEvent(session.getService());
+        new SlideTabServiceInitListener().serviceInit(event);
+        event.getAddedVaadinRequestInterceptor().forEach(interceptor -> interceptor.requestEnd(null, null, session));
+        session.getService().runPendingAccessTasks(session);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (ScheduleMetrics.getFiredCount() == fired && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(fired + 1, ScheduleMetrics.getFiredCount());
+    }
+
+    @Test
+    public void deserializedScheduleIsArmedOnceWhenUsed() throws Exception {
+        SlideTab tab = new SlideTabBuilder(new Div()).build();
+        tab.scheduleExpand(60_000);
+        byte[] bytes = serialize(tab);
+
+        long pending = ScheduleMetrics.getPendingCount();
+        SlideTab copy = deserialize(bytes);
+        deserialize(bytes);
+        Assert.assertEquals("Nothing is scheduled while deserializing", pending, ScheduleMetrics.getPendingCount());
+
+        SlideTabSnapshot snapshot = copy.snapshot();
+        copy.snapshot();
+        Assert.assertTrue(snapshot.hasPendingSchedule());
+        Assert.assertTrue(snapshot.isPendingExpand());
+        Assert.assertEquals("Armed once", pending + 1, ScheduleMetrics.getPendingCount());
+    }
+
+    @Test
+    public void resumedScheduleSurvivesSerializingAgain() throws Exception {
+        SlideTab tab = new SlideTabBuilder(new Div()).build();
+        tab.scheduleCollapse(60_000);
+
+        // Serialized again before any copy was used
+        SlideTab copy = deserialize(serialize(deserialize(serialize(tab))));
+
+        Assert.assertTrue(copy.snapshot().hasPendingSchedule());
+    }
+
+    @Test
+    public void deserializedTabSubscribesToBroadcastsAgain() throws Exception {
+        SlideTab tab = new SlideTabBuilder(new Div()).build();
+        UI.getCurrent().add(tab);
+        tab.setBroadcastId("deserialized");
+        Assert.assertEquals(1, SlideTabBroadcaster.getSubscriberCount("deserialized"));
+
+        SlideTab copy = deserialize(serialize(tab));
+
+        // The copy is attached to the copy of the UI
+        Assert.assertTrue(copy.isAttached());
+        Assert.assertEquals(2, SlideTabBroadcaster.getSubscriberCount("deserialized"));
+        copy.setBroadcastId(null);
+        tab.setBroadcastId(null);
+    }
+
+    @Test
+    public void deserializedDetachedTabDoesNotSubscribe() throws Exception {
+        SlideTab tab = new SlideTabBuilder(new Div()).build();
+        tab.setBroadcastId("detached");
+
+        SlideTab copy = deserialize(serialize(tab));
+
+        Assert.assertFalse(copy.isAttached());
+        Assert.assertEquals(0, SlideTabBroadcaster.getSubscriberCount("detached"));
+        Assert.assertEquals("detached", copy.getBroadcastId());
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (T) in.readObject();
+        }
+    }
+}
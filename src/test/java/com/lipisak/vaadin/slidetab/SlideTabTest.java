@@ -0,0 +1,122 @@
+package com.lipisak.vaadin.slidetab;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.testbench.unit.UIUnit4Test;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class SlideTabTest extends UIUnit4Test {
+
+    private UI ui;
+    private SlideTab tab;
+
+    @Before
+    public void setUp() {
+        ui = UI.getCurrent();
+        tab = new SlideTabBuilder(new Div()).build();
+        ui.add(tab);
+    }
+
+    @Test
+    public void deferredExpandIsSentOnceOnAttach() {
+        tab.onVisibilityChanged(false);
+        tab.runInUI(tab::expand);
+        sentFunctions();
+        ui.remove(tab);
+
+        ui.add(tab);
+
+        Assert.assertEquals(List.of("expand"), sentFunctions());
+        Assert.assertTrue(tab.isExpanded());
+    }
+
+    @Test
+    public void expandedStateIsRenderedOnAttach() {
+        tab.expand();
+        sentFunctions();
+        ui.remove(tab);
+
+        ui.add(tab);
+
+        Assert.assertEquals(List.of("expand"), sentFunctions());
+    }
+
+    @Test
+    public void sizeMeasuredBeforeChunkLoadIsNotReused() {
+        SlideTab chunked = new SlideTabBuilder(new Div(new Div(), new Div(), new Div())).chunkedContent(1).build();
+        chunked.setTransitionTrackingEnabled(true);
+        ui.add(chunked);
+        chunked.expand();
+        chunked.onTransitionEnd(true, 120);
+        chunked.loadNextChunk();
+        sentFunctions();
+        ui.remove(chunked);
+
+        ui.add(chunked);
+
+        Assert.assertEquals(List.of(0), sentSizes());
+    }
+
+    @Test
+    public void deferredContentKeepsItsPosition() {
+        Div first = new Div();
+        Div second = new Div();
+        Div third = new Div();
+        Div content = new Div(first, second, third);
+        SlideTab chunked = new SlideTabBuilder(content).chunkedContent(1).build();
+        Div added = new Div();
+        content.add(added);
+
+        chunked.loadNextChunk();
+        chunked.loadAllContent();
+
+        Assert.assertEquals(List.of(first, second, third, added), content.getChildren().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void snapshotReportsScheduleOfAnyStrategy() {
+        List<SlideTab.TabTask> tasks = new ArrayList<>();
+        SlideTab scheduled = new SlideTabBuilder(new Div())
+                .scheduleStrategy((tabTask, delayMillis) -> tasks.add(tabTask)).build();
+        long before = System.currentTimeMillis();
+
+        scheduled.scheduleExpand(60_000);
+        SlideTabSnapshot snapshot = scheduled.snapshot();
+        Assert.assertTrue(snapshot.hasPendingSchedule());
+        Assert.assertTrue(snapshot.isPendingExpand());
+        Assert.assertTrue(snapshot.getPendingDeadline() >= before + 60_000);
+
+        tasks.get(0).cancel();
+        Assert.assertFalse(scheduled.snapshot().hasPendingSchedule());
+    }
+
+    /**
+     * Returns the sizes sent with the expand calls since the last call, and drops the calls
+     */
+    private List<Object> sentSizes() {
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        return ui.getInternals().dumpPendingJavaScriptInvocations().stream()
+                .map(invocation -> invocation.getInvocation())
+                .filter(invocation -> invocation.getExpression().startsWith("return $0.expand("))
+                .map(invocation -> invocation.getParameters().get(1))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the names of the client functions called since the last call, and drops the calls
+     */
+    private List<String> sentFunctions() {
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        return ui.getInternals().dumpPendingJavaScriptInvocations().stream()
+                .map(invocation -> invocation.getInvocation().getExpression())
+                .filter(expression -> expression.startsWith("return $0."))
+                .map(expression -> expression.substring("return $0.".length(), expression.indexOf('(')))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,79 @@
+package com.lipisak.vaadin.slidetab;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SlideTransitionTest {
+
+    private final SlideTransition transition = new SlideTransition();
+
+    @Test
+    public void animatedExpandWaitsForAcknowledgement() {
+        Assert.assertTrue(transition.request(true, true));
+        Assert.assertEquals(SlideState.EXPANDING, transition.getState());
+
+        Assert.assertTrue(transition.acknowledge(true));
+        Assert.assertEquals(SlideState.EXPANDED, transition.getState());
+    }
+
+    @Test
+    public void instantChangesSkipTransitionStates() {
+        Assert.assertTrue(transition.request(true, false));
+        Assert.assertEquals(SlideState.EXPANDED, transition.getState());
+
+        Assert.assertTrue(transition.request(false, false));
+        Assert.assertEquals(SlideState.COLLAPSED, transition.getState());
+    }
+
+    @Test
+    public void requestForCurrentOrTargetStateIsIgnored() {
+        Assert.assertFalse(transition.request(false, true));
+
+        transition.request(true, true);
+        Assert.assertFalse(transition.request(true, true));
+        Assert.assertFalse(transition.request(true, false));
+        Assert.assertEquals(SlideState.EXPANDING, transition.getState());
+    }
+
+    @Test
+    public void acknowledgementOfReversedTransitionIsIgnored() {
+        transition.request(true, true);
+        transition.request(false, true);
+        Assert.assertEquals(SlideState.COLLAPSING, transition.getState());
+
+        // The end of the superseded expand
+        Assert.assertFalse(transition.acknowledge(true));
+        Assert.assertEquals(SlideState.COLLAPSING, transition.getState());
+
+        Assert.assertTrue(transition.acknowledge(false));
+        Assert.assertEquals(SlideState.COLLAPSED, transition.getState());
+    }
+
+    @Test
+    public void repeatedAcknowledgementIsIgnored() {
+        transition.request(true, true);
+        transition.acknowledge(true);
+
+        Assert.assertFalse(transition.acknowledge(true));
+        Assert.assertEquals(SlideState.EXPANDED, transition.getState());
+    }
+
+    @Test
+    public void finishCompletesRunningTransition() {
+        transition.request(true, true);
+        transition.finish();
+        Assert.assertEquals(SlideState.EXPANDED, transition.getState());
+
+        transition.request(false, true);
+        transition.finish();
+        Assert.assertEquals(SlideState.COLLAPSED, transition.getState());
+    }
+
+    @Test
+    public void resetSetsFinalState() {
+        transition.request(true, true);
+        transition.reset(false);
+        Assert.assertEquals(SlideState.COLLAPSED, transition.getState());
+        Assert.assertFalse(transition.acknowledge(true));
+    }
+}